@@ -8,27 +8,97 @@ public class AstPrinter implements Expr.Visitor<String> {
         return expr.accept(this);
     }
 
+    @Override
+    public String visitAssignExpr(final Expr.Assign expr) {
+        return parenthesize("= " + expr.name.lexeme(), expr.value);
+    }
+
     @Override
     public String visitBinaryExpr(final Expr.Binary expr) {
         return parenthesize(expr.operator.lexeme(), expr.left, expr.right);
     }
 
+    @Override
+    public String visitCallExpr(final Expr.Call expr) {
+        final var arguments = new Expr[expr.arguments.size() + 1];
+        arguments[0] = expr.callee;
+        for (var i = 0; i < expr.arguments.size(); i++) {
+            arguments[i + 1] = expr.arguments.get(i);
+        }
+        return parenthesize("call", arguments);
+    }
+
+    @Override
+    public String visitGetExpr(final Expr.Get expr) {
+        return parenthesize(". " + expr.name.lexeme(), expr.object);
+    }
+
     @Override
     public String visitGroupingExpr(final Expr.Grouping expr) {
         return parenthesize("group", expr.expression);
     }
 
+    @Override
+    public String visitIndexExpr(final Expr.Index expr) {
+        return parenthesize("[]", expr.object, expr.index);
+    }
+
+    @Override
+    public String visitIndexSetExpr(final Expr.IndexSet expr) {
+        return parenthesize("[]=", expr.object, expr.index, expr.value);
+    }
+
+    @Override
+    public String visitListLiteralExpr(final Expr.ListLiteral expr) {
+        return parenthesize("list", expr.elements.toArray(new Expr[0]));
+    }
+
     @Override
     public String visitLiteralExpr(final Expr.Literal expr) {
         if (expr.value == null) return "nil";
         return expr.value.toString();
     }
 
+    @Override
+    public String visitLogicalExpr(final Expr.Logical expr) {
+        return parenthesize(expr.operator.lexeme(), expr.left, expr.right);
+    }
+
+    @Override
+    public String visitMapLiteralExpr(final Expr.MapLiteral expr) {
+        final var entries = new Expr[expr.keys.size() * 2];
+        for (var i = 0; i < expr.keys.size(); i++) {
+            entries[2 * i] = expr.keys.get(i);
+            entries[2 * i + 1] = expr.values.get(i);
+        }
+        return parenthesize("map", entries);
+    }
+
+    @Override
+    public String visitSetExpr(final Expr.Set expr) {
+        return parenthesize("= " + expr.name.lexeme(), expr.object, expr.value);
+    }
+
+    @Override
+    public String visitSuperExpr(final Expr.Super expr) {
+        return "(super " + expr.method.lexeme() + ")";
+    }
+
+    @Override
+    public String visitThisExpr(final Expr.This expr) {
+        return "this";
+    }
+
     @Override
     public String visitUnaryExpr(final Expr.Unary expr) {
         return parenthesize(expr.operator.lexeme(), expr.right);
     }
 
+    @Override
+    public String visitVariableExpr(final Expr.Variable expr) {
+        return expr.name.lexeme();
+    }
+
     private String parenthesize(final String name, final Expr... exprs) {
         final var builder = new StringBuilder();
 
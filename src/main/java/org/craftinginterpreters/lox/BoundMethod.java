@@ -0,0 +1,32 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A method read off an instance as a value, remembering the instance it was read from as {@code this}.
+ */
+final class BoundMethod implements LoxCallable {
+    final LoxInstance receiver;
+    final LoxFunction method;
+
+    BoundMethod(final LoxInstance receiver, final LoxFunction method) {
+        this.receiver = receiver;
+        this.method = method;
+    }
+
+    @Override
+    public int arity() {
+        return method.arity();
+    }
+
+    @Override
+    public Object call(final Interpreter interpreter, final Object[] arguments) {
+        final var frame = method.acquireFrame();
+        frame.values[0] = receiver;
+        System.arraycopy(arguments, 0, frame.values, method.firstParameter(), arguments.length);
+        return method.invoke(interpreter, frame);
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
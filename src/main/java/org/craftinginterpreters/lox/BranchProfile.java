@@ -0,0 +1,18 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Counts, for one logical operator, how often each operand decided the result: the left when the operator
+ * short-circuited, the right otherwise. The {@link LoopCompiler} lays compiled code out for the more common
+ * outcome, and the profiler reports the counts.
+ */
+final class BranchProfile {
+    long leftDecided = 0;
+    long rightDecided = 0;
+
+    /**
+     * Whether the operator has short-circuited more often than not.
+     */
+    boolean mostlyShortCircuits() {
+        return leftDecided >= rightDecided;
+    }
+}
@@ -0,0 +1,9 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A monomorphic inline cache for one call expression. It remembers the last callable invoked at the site, which
+ * has already passed the callable and arity checks, so a repeat call to the same target skips them.
+ */
+final class CallSite {
+    LoxCallable target = null;
+}
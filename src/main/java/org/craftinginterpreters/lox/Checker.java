@@ -0,0 +1,89 @@
+package org.craftinginterpreters.lox;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Scans and parses Lox files without running them, reporting every syntax error in each.
+ * Files are independent, so each gets its own scanner, parser and {@link Diagnostics} and they are checked in
+ * parallel across the common fork-join pool. Errors are printed afterwards, file by file in path order, so the output
+ * does not depend on which file finished first.
+ */
+final class Checker {
+    /**
+     * The errors found in one file.
+     */
+    record Result(Path path, List<Diagnostics.Diagnostic> diagnostics) {
+    }
+
+    private final boolean stackSafe;
+
+    /**
+     * @param stackSafe Parse expressions with explicit heap stacks rather than recursive descent.
+     */
+    Checker(final boolean stackSafe) {
+        this.stackSafe = stackSafe;
+    }
+
+    /**
+     * @param paths Lox files, and directories to search for {@code .lox} files.
+     * @return The errors in each file found, in path order.
+     * @throws IOException Error listing a directory or reading a file.
+     */
+    List<Result> check(final List<Path> paths) throws IOException {
+        final var files = new ArrayList<Path>();
+        for (final var path : paths) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> tree = Files.walk(path)) {
+                    tree.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".lox"))
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        files.sort(null);
+
+        try {
+            return files.parallelStream().map(this::check).toList();
+        } catch (final UncheckedIOException error) {
+            throw error.getCause();
+        }
+    }
+
+    private Result check(final Path file) {
+        final String source;
+        try {
+            source = Files.readString(file, Charset.defaultCharset());
+        } catch (final IOException error) {
+            throw new UncheckedIOException(error);
+        }
+        final var diagnostics = new Diagnostics();
+        final var tokens = new Scanner(source, diagnostics).scanTokens();
+        new Parser(tokens, stackSafe, false, diagnostics).parse();
+        return new Result(file, List.copyOf(diagnostics.pending()));
+    }
+
+    /**
+     * Print each error prefixed by the file it is in.
+     *
+     * @return Whether there were any errors.
+     */
+    static boolean report(final List<Result> results, final PrintStream out) {
+        var failed = false;
+        for (final var result : results) {
+            for (final var diagnostic : result.diagnostics()) {
+                out.println(result.path() + ": " + diagnostic);
+                failed = true;
+            }
+        }
+        return failed;
+    }
+}
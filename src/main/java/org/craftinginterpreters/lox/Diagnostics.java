@@ -0,0 +1,129 @@
+package org.craftinginterpreters.lox;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the errors reported while scanning, parsing, resolving and running a program, so callers can inspect
+ * them instead of reading standard error. Nothing is printed until {@link #flush(PrintStream)} writes the pending
+ * errors out as one batch, in the format jlox has always printed.
+ */
+final class Diagnostics {
+    enum Kind {
+        /**
+         * Found before the program ran, by the scanner, parser or resolver.
+         */
+        STATIC,
+        RUNTIME
+    }
+
+    /**
+     * @param where Where on the line the error is, such as {@code " at 'x'"}; empty for scanner and runtime errors.
+     */
+    record Diagnostic(Kind kind, int line, String where, String message) {
+        @Override
+        public String toString() {
+            if (kind == Kind.RUNTIME) return message + "\n[line " + line + "]";
+            return "[line %d] Error %s: %s".formatted(line, where, message);
+        }
+    }
+
+    private final List<Diagnostic> pending = new ArrayList<>();
+    private boolean hadError = false;
+    private boolean hadRuntimeError = false;
+
+    /**
+     * Report an error the scanner found on a line.
+     */
+    void error(final int line, final String message) {
+        report(line, "", message);
+    }
+
+    /**
+     * Report an error the parser or resolver found at a token.
+     */
+    void error(final Token token, final String message) {
+        if (token.type() == TokenType.EOF) {
+            report(token.line(), " at end", message);
+        } else {
+            report(token.line(), " at '%s'".formatted(token.lexeme()), message);
+        }
+    }
+
+    private void report(final int line, final String where, final String message) {
+        LoxMetrics.INSTANCE.syntaxError();
+        hadError = true;
+        pending.add(new Diagnostic(Kind.STATIC, line, where, message));
+    }
+
+    /**
+     * Report the error that stopped a program.
+     */
+    void runtimeError(final RuntimeError error) {
+        LoxMetrics.INSTANCE.runtimeError();
+        hadRuntimeError = true;
+        pending.add(new Diagnostic(Kind.RUNTIME, error.token.line(), "", error.getMessage()));
+    }
+
+    /**
+     * Report errors that were collected, and counted, by another sink.
+     */
+    void addAll(final List<Diagnostic> diagnostics) {
+        for (final var diagnostic : diagnostics) {
+            if (diagnostic.kind() == Kind.RUNTIME) {
+                hadRuntimeError = true;
+            } else {
+                hadError = true;
+            }
+            pending.add(diagnostic);
+        }
+    }
+
+    /**
+     * Whether a scanner, parser or resolver error has been reported since the last {@link #reset()}.
+     */
+    boolean hadError() {
+        return hadError;
+    }
+
+    /**
+     * Whether a runtime error has been reported since the last {@link #reset()}.
+     */
+    boolean hadRuntimeError() {
+        return hadRuntimeError;
+    }
+
+    /**
+     * The errors reported since the last flush, oldest first.
+     */
+    List<Diagnostic> pending() {
+        return Collections.unmodifiableList(pending);
+    }
+
+    /**
+     * Write the pending errors, one per line, and forget them. Whether there were any is still remembered.
+     *
+     * @param out Where to write.
+     */
+    void flush(final PrintStream out) {
+        if (pending.isEmpty()) return;
+        final var batch = new StringBuilder();
+        for (final var diagnostic : pending) {
+            batch.append(diagnostic).append(System.lineSeparator());
+        }
+        out.print(batch);
+        out.flush();
+        pending.clear();
+    }
+
+    /**
+     * Forget every error reported so far.
+     */
+    void reset() {
+        pending.clear();
+        hadError = false;
+        hadRuntimeError = false;
+    }
+}
@@ -0,0 +1,31 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * The local variables of one scope, stored in the slots assigned by the {@link Resolver}.
+ * Variables are reached by walking a fixed number of enclosing scopes and indexing an array, never by name.
+ */
+final class Environment {
+    final Environment enclosing;
+    final Object[] values;
+
+    Environment(final Environment enclosing, final int size) {
+        this.enclosing = enclosing;
+        this.values = new Object[size];
+    }
+
+    Object get(final int depth, final int slot) {
+        return ancestor(depth).values[slot];
+    }
+
+    void assign(final int depth, final int slot, final Object value) {
+        ancestor(depth).values[slot] = value;
+    }
+
+    private Environment ancestor(final int depth) {
+        var environment = this;
+        for (var i = 0; i < depth; i++) {
+            environment = environment.enclosing;
+        }
+        return environment;
+    }
+}
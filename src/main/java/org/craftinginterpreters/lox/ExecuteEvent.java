@@ -0,0 +1,22 @@
+package org.craftinginterpreters.lox;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one call to {@link Interpreter#interpret(java.util.List)}.
+ */
+@Name("org.craftinginterpreters.lox.Execute")
+@Label("Lox Execute")
+@Category("Lox")
+@Description("Syntax tree executed by the interpreter")
+final class ExecuteEvent extends Event {
+    @Label("Statement Count")
+    int statementCount;
+
+    @Label("Runtime Error")
+    boolean runtimeError;
+}
@@ -1,15 +1,47 @@
 // This file is autogenerated by src/main/java/org/craftinginterpreters/tool/GenerateAst.java. Do not edit by hand!
 package org.craftinginterpreters.lox;
 
-abstract class Expr {
+import java.util.List;
+
+abstract sealed class Expr {
     interface Visitor<R> {
+        R visitAssignExpr(final Assign expr);
         R visitBinaryExpr(final Binary expr);
+        R visitCallExpr(final Call expr);
+        R visitGetExpr(final Get expr);
         R visitGroupingExpr(final Grouping expr);
+        R visitIndexExpr(final Index expr);
+        R visitIndexSetExpr(final IndexSet expr);
+        R visitListLiteralExpr(final ListLiteral expr);
         R visitLiteralExpr(final Literal expr);
+        R visitLogicalExpr(final Logical expr);
+        R visitMapLiteralExpr(final MapLiteral expr);
+        R visitSetExpr(final Set expr);
+        R visitSuperExpr(final Super expr);
+        R visitThisExpr(final This expr);
         R visitUnaryExpr(final Unary expr);
+        R visitVariableExpr(final Variable expr);
     }
 
-    static class Binary extends Expr {
+    static final class Assign extends Expr {
+        Assign(final Token name, Expr value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitAssignExpr(this);
+        }
+
+        final Token name;
+        final Expr value;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
+    }
+
+    static final class Binary extends Expr {
         Binary(final Expr left, Token operator, Expr right) {
             this.left = left;
             this.operator = operator;
@@ -24,9 +56,50 @@ abstract class Expr {
         final Expr left;
         final Token operator;
         final Expr right;
+
+        // Runtime state, filled in after parsing.
+        boolean numeric;
+    }
+
+    static final class Call extends Expr {
+        Call(final Expr callee, Token paren, List<Expr> arguments) {
+            this.callee = callee;
+            this.paren = paren;
+            this.arguments = arguments;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitCallExpr(this);
+        }
+
+        final Expr callee;
+        final Token paren;
+        final List<Expr> arguments;
+
+        // Runtime state, filled in after parsing.
+        CallSite site;
+    }
+
+    static final class Get extends Expr {
+        Get(final Expr object, Token name) {
+            this.object = object;
+            this.name = name;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitGetExpr(this);
+        }
+
+        final Expr object;
+        final Token name;
+
+        // Runtime state, filled in after parsing.
+        PropertySite site;
     }
 
-    static class Grouping extends Expr {
+    static final class Grouping extends Expr {
         Grouping(final Expr expression) {
             this.expression = expression;
         }
@@ -39,7 +112,58 @@ abstract class Expr {
         final Expr expression;
     }
 
-    static class Literal extends Expr {
+    static final class Index extends Expr {
+        Index(final Expr object, Token bracket, Expr index) {
+            this.object = object;
+            this.bracket = bracket;
+            this.index = index;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitIndexExpr(this);
+        }
+
+        final Expr object;
+        final Token bracket;
+        final Expr index;
+    }
+
+    static final class IndexSet extends Expr {
+        IndexSet(final Expr object, Token bracket, Expr index, Expr value) {
+            this.object = object;
+            this.bracket = bracket;
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitIndexSetExpr(this);
+        }
+
+        final Expr object;
+        final Token bracket;
+        final Expr index;
+        final Expr value;
+    }
+
+    static final class ListLiteral extends Expr {
+        ListLiteral(final Token bracket, List<Expr> elements) {
+            this.bracket = bracket;
+            this.elements = elements;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitListLiteralExpr(this);
+        }
+
+        final Token bracket;
+        final List<Expr> elements;
+    }
+
+    static final class Literal extends Expr {
         Literal(final Object value) {
             this.value = value;
         }
@@ -52,7 +176,98 @@ abstract class Expr {
         final Object value;
     }
 
-    static class Unary extends Expr {
+    static final class Logical extends Expr {
+        Logical(final Expr left, Token operator, Expr right) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitLogicalExpr(this);
+        }
+
+        final Expr left;
+        final Token operator;
+        final Expr right;
+
+        // Runtime state, filled in after parsing.
+        BranchProfile profile;
+    }
+
+    static final class MapLiteral extends Expr {
+        MapLiteral(final Token brace, List<Expr> keys, List<Expr> values) {
+            this.brace = brace;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitMapLiteralExpr(this);
+        }
+
+        final Token brace;
+        final List<Expr> keys;
+        final List<Expr> values;
+    }
+
+    static final class Set extends Expr {
+        Set(final Expr object, Token name, Expr value) {
+            this.object = object;
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitSetExpr(this);
+        }
+
+        final Expr object;
+        final Token name;
+        final Expr value;
+
+        // Runtime state, filled in after parsing.
+        PropertySite site;
+    }
+
+    static final class Super extends Expr {
+        Super(final Token keyword, Token method) {
+            this.keyword = keyword;
+            this.method = method;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitSuperExpr(this);
+        }
+
+        final Token keyword;
+        final Token method;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
+    }
+
+    static final class This extends Expr {
+        This(final Token keyword) {
+            this.keyword = keyword;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitThisExpr(this);
+        }
+
+        final Token keyword;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
+    }
+
+    static final class Unary extends Expr {
         Unary(final Token operator, Expr right) {
             this.operator = operator;
             this.right = right;
@@ -65,6 +280,25 @@ abstract class Expr {
 
         final Token operator;
         final Expr right;
+
+        // Runtime state, filled in after parsing.
+        boolean numeric;
+    }
+
+    static final class Variable extends Expr {
+        Variable(final Token name) {
+            this.name = name;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitVariableExpr(this);
+        }
+
+        final Token name;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
     }
 
     abstract <R> R accept(final Visitor<R> visitor);
@@ -0,0 +1,61 @@
+package org.craftinginterpreters.lox;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The global variables of one interpreter, stored in an array indexed by name.
+ * Names are given indexes process-wide, so a tree resolved once can run on any interpreter and across REPL lines.
+ */
+final class Globals {
+    private static final Map<String, Integer> INDEXES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    /**
+     * Marks a slot whose variable has not been defined yet, distinct from a variable holding nil.
+     */
+    private static final Object UNDEFINED = new Object();
+
+    private Object[] values = new Object[0];
+
+    /**
+     * The index of the global variable with the given name.
+     */
+    static int indexOf(final String name) {
+        return INDEXES.computeIfAbsent(name, key -> NEXT_INDEX.getAndIncrement());
+    }
+
+    Object get(final Token name, final int index) {
+        if (index < values.length) {
+            final var value = values[index];
+            if (value != UNDEFINED) return value;
+        }
+        throw undefined(name);
+    }
+
+    void define(final int index, final Object value) {
+        ensureCapacity(index);
+        values[index] = value;
+    }
+
+    void assign(final Token name, final int index, final Object value) {
+        if (index >= values.length || values[index] == UNDEFINED) {
+            throw undefined(name);
+        }
+        values[index] = value;
+    }
+
+    private void ensureCapacity(final int index) {
+        if (index < values.length) return;
+
+        final var length = values.length;
+        values = Arrays.copyOf(values, Math.max(index + 1, length * 2));
+        Arrays.fill(values, length, values.length, UNDEFINED);
+    }
+
+    private static RuntimeError undefined(final Token name) {
+        return new RuntimeError(name, "Undefined variable '%s'.".formatted(name.lexeme()));
+    }
+}
@@ -0,0 +1,344 @@
+package org.craftinginterpreters.lox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps a source file parsed as it is edited, scanning and parsing again only around each edit.
+ * The file is held as a run of chunks, one per top-level declaration, each with its tokens, its syntax tree and the
+ * errors found in it. A chunk runs from the end of the declaration before it to the end of its own last token, so it
+ * owns the white space and comments in front of it.
+ * An edit is scanned again from the start of the chunk before the first token it touches, until the scanner reaches
+ * the first token of a chunk wholly after the edit, unchanged and in the same place, from where scanning would only
+ * produce the old tokens again. Declarations are then parsed again until one ends exactly where an old chunk starts,
+ * and the chunks from there on are kept as they are, syntax trees included. So the work done is proportional to the
+ * declarations the edit touches rather than to the file, apart from splicing the source text and the list of chunks.
+ * The tokens of a chunk, which its syntax tree holds, and its errors count their lines from a base line of the
+ * chunk's own, and declarations are parsed without sharing nodes, so no chunk holds tokens of another. When an edit
+ * adds or removes lines, each chunk kept after it is moved by updating that one number: like splicing the list of
+ * chunks, that costs a little for every declaration after the edit, but nothing for the tokens and nodes in them.
+ */
+final class IncrementalParser {
+    /**
+     * A scanner error, and the index of the token it was found in front of.
+     */
+    private record ScanError(int before, Diagnostics.Diagnostic diagnostic) {
+    }
+
+    /**
+     * @param offsets     Where each token starts, relative to the start of the chunk.
+     * @param length      The characters from the start of the chunk to the end of its last token.
+     * @param statement   The declaration, or null if it had a syntax error.
+     * @param scanErrors  Scanner errors found in the chunk, by the index of the token within it they came before.
+     * @param parseErrors Syntax errors found in the declaration.
+     * @param base        The line the chunk's tokens and errors count theirs from, once it is in the list of chunks.
+     */
+    private record Chunk(List<Token> tokens, int[] offsets, int length, Stmt statement, List<ScanError> scanErrors,
+                         List<Diagnostics.Diagnostic> parseErrors, Token.LineBase base) {
+        Token last() {
+            return tokens.get(tokens.size() - 1);
+        }
+
+        /**
+         * Count the chunk's tokens from its base, which they may have been scanned or parsed without.
+         */
+        void rebase() {
+            tokens.forEach(token -> token.rebase(base));
+        }
+
+        Diagnostics.Diagnostic absolute(final Diagnostics.Diagnostic relative) {
+            return moved(relative, base.line);
+        }
+    }
+
+    /**
+     * The tokens being parsed again: those just scanned, followed by those of the old chunks after them and an EOF.
+     */
+    private static final class Window {
+        final List<Token> tokens = new ArrayList<>();
+        final List<ScanError> scanErrors = new ArrayList<>();
+        // Where each token starts in the edited source.
+        int[] offsets = new int[64];
+
+        void add(final Token token, final int offset) {
+            if (tokens.size() == offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[tokens.size()] = offset;
+            tokens.add(token);
+        }
+
+        void removeLast() {
+            tokens.remove(tokens.size() - 1);
+        }
+
+        int size() {
+            return tokens.size();
+        }
+
+        int end(final int index) {
+            return offsets[index] + tokens.get(index).lexeme().length();
+        }
+
+        /**
+         * @param start Where the first chunk of the window starts in the edited source.
+         */
+        Chunk chunk(final int from, final int to, final int start, final Stmt statement,
+                    final List<Diagnostics.Diagnostic> parseErrors) {
+            final var chunkStart = from == 0 ? start : end(from - 1);
+            final var relative = new int[to - from];
+            for (var i = from; i < to; i++) {
+                relative[i - from] = offsets[i] - chunkStart;
+            }
+            final var base = new Token.LineBase(tokens.get(from).line());
+            final var errors = new ArrayList<ScanError>();
+            for (final var error : scanErrors) {
+                if (error.before() >= from && error.before() < to) {
+                    errors.add(new ScanError(error.before() - from, moved(error.diagnostic(), -base.line)));
+                }
+            }
+            return new Chunk(List.copyOf(tokens.subList(from, to)), relative, end(to - 1) - chunkStart, statement,
+                    errors, parseErrors.stream().map(error -> moved(error, -base.line)).toList(), base);
+        }
+    }
+
+    // How many old chunks are first lined up after the scanned tokens, doubling each time the parser runs past them.
+    private static final int INITIAL_CHUNKS = 2;
+
+    private final boolean stackSafe;
+    private String source = "";
+    private List<Chunk> chunks = new ArrayList<>();
+    private Token eof = new Token(TokenType.EOF, "", null, 1);
+    // Scanner errors after the last token.
+    private List<Diagnostics.Diagnostic> tailErrors = List.of();
+    private int rescanned = 0;
+    private int reparsed = 0;
+
+    /**
+     * @param source    The source code.
+     * @param stackSafe Parse expressions with explicit heap stacks rather than recursive descent.
+     */
+    IncrementalParser(final String source, final boolean stackSafe) {
+        this.stackSafe = stackSafe;
+        edit(0, 0, source);
+    }
+
+    /**
+     * Apply a text edit and bring the syntax tree up to date.
+     *
+     * @param offset   Where the edit starts.
+     * @param removed  How many characters it removes from there.
+     * @param inserted The text it inserts in their place.
+     * @return The top-level declarations of the edited source that have no syntax errors.
+     */
+    List<Stmt> edit(final int offset, final int removed, final String inserted) {
+        Objects.checkFromIndexSize(offset, removed, source.length());
+        final var delta = inserted.length() - removed;
+        final var editEnd = offset + inserted.length();
+        source = source.substring(0, offset) + inserted + source.substring(offset + removed);
+        reparsed = 0;
+
+        // Where a declaration ends can depend on the token after it, such as an else or a keyword that stops error
+        // recovery, so start from the last chunk whose first token ends before the edit; an edit right at the end of
+        // a token may extend it.
+        var first = 0;
+        var restart = 0;
+        while (first + 1 < chunks.size()) {
+            final var following = chunks.get(first + 1);
+            final var start = restart + chunks.get(first).length();
+            if (start + following.offsets()[0] + following.tokens().get(0).lexeme().length() >= offset) break;
+            restart = start;
+            first++;
+        }
+
+        // Scan until a token lines up with the first token of an old chunk after the edit. Its line may differ, by as
+        // many lines as the edit adds or removes, and the old chunks from there on are moved by as many.
+        final var window = new Window();
+        final var diagnostics = new Diagnostics();
+        final var line = first == 0 ? 1 : chunks.get(first - 1).last().line();
+        final var scanner = new Scanner(source, diagnostics, restart, line);
+        var next = first;
+        var nextStart = restart;
+        var caughtUp = false;
+        var lines = 0;
+        for (var chunkStart = restart; ; chunkStart = scanner.position()) {
+            final var token = scanner.nextToken();
+            while (next < chunks.size() && (next <= first || nextStart + delta < Math.max(chunkStart, editEnd))) {
+                nextStart += chunks.get(next).length();
+                next++;
+            }
+            if (next < chunks.size() && nextStart + delta == chunkStart
+                    && scanner.tokenStart() == chunkStart + chunks.get(next).offsets()[0]
+                    && sameText(token, chunks.get(next).tokens().get(0))) {
+                caughtUp = true;
+                lines = token.line() - chunks.get(next).tokens().get(0).line();
+                break;
+            }
+            for (final var error : diagnostics.pending()) {
+                window.scanErrors.add(new ScanError(window.size(), error));
+            }
+            diagnostics.reset();
+            window.add(token, scanner.tokenStart());
+            if (token.type() == TokenType.EOF) break;
+        }
+        final var scanned = window.size();
+        rescanned = scanned;
+        if (lines != 0) {
+            for (final var chunk : chunks.subList(next, chunks.size())) {
+                chunk.base().line += lines;
+            }
+            eof = new Token(TokenType.EOF, "", null, eof.line() + lines);
+            final var shift = lines;
+            tailErrors = tailErrors.stream().map(error -> moved(error, shift)).toList();
+        }
+
+        // Parse the scanned tokens along with as many old chunks as it takes for a declaration to end where one starts.
+        final var boundaries = new ArrayList<Integer>();
+        var appended = 0;
+        var wanted = INITIAL_CHUNKS;
+        for (; ; ) {
+            if (caughtUp) {
+                if (appended > 0) window.removeLast();
+                var start = nextStart + delta;
+                for (var c = next; c < next + appended; c++) {
+                    start += chunks.get(c).length();
+                }
+                for (; appended < wanted && next + appended < chunks.size(); appended++) {
+                    final var chunk = chunks.get(next + appended);
+                    boundaries.add(window.size());
+                    for (final var error : chunk.scanErrors()) {
+                        window.scanErrors.add(new ScanError(window.size() + error.before(),
+                                chunk.absolute(error.diagnostic())));
+                    }
+                    for (var t = 0; t < chunk.tokens().size(); t++) {
+                        window.add(chunk.tokens().get(t), start + chunk.offsets()[t]);
+                    }
+                    start += chunk.length();
+                }
+                if (next + appended == chunks.size()) {
+                    for (final var error : tailErrors) {
+                        window.scanErrors.add(new ScanError(window.size(), error));
+                    }
+                    window.add(eof, source.length());
+                } else {
+                    // Stands in for the rest of the file; a declaration that runs into it is parsed again later.
+                    window.add(new Token(TokenType.EOF, "", null, window.tokens.get(window.size() - 1).line()), start);
+                }
+            }
+            final var reachesEnd = !caughtUp || next + appended == chunks.size();
+
+            final var parseErrors = new Diagnostics();
+            final var parser = new Parser(window.tokens, stackSafe, true, parseErrors);
+            final var built = new ArrayList<Chunk>();
+            final var end = window.size() - 1;
+            var boundary = 0;
+            var resume = -1;
+            for (; ; ) {
+                final var from = parser.position();
+                while (boundary < boundaries.size() && boundaries.get(boundary) < from) boundary++;
+                if (from < end && boundary < boundaries.size() && boundaries.get(boundary) == from) {
+                    resume = next + boundary;
+                    break;
+                }
+                if (from == end) {
+                    if (reachesEnd) resume = chunks.size();
+                    break;
+                }
+                final var statement = parser.parseDeclaration();
+                reparsed++;
+                built.add(window.chunk(from, parser.position(), restart, statement,
+                        List.copyOf(parseErrors.pending())));
+                parseErrors.reset();
+            }
+            if (resume < 0) {
+                wanted *= 2;
+                continue;
+            }
+
+            if (resume == chunks.size()) {
+                eof = window.tokens.get(end);
+                tailErrors = window.scanErrors.stream()
+                        .filter(error -> error.before() == end)
+                        .map(ScanError::diagnostic)
+                        .toList();
+            }
+            built.forEach(Chunk::rebase);
+            final var edited = new ArrayList<Chunk>(first + built.size() + chunks.size() - resume);
+            edited.addAll(chunks.subList(0, first));
+            edited.addAll(built);
+            edited.addAll(chunks.subList(resume, chunks.size()));
+            chunks = edited;
+            return statements();
+        }
+    }
+
+    /**
+     * The current source code, with every edit applied.
+     */
+    String source() {
+        return source;
+    }
+
+    /**
+     * The top-level declarations that have no syntax errors.
+     */
+    List<Stmt> statements() {
+        final var statements = new ArrayList<Stmt>(chunks.size());
+        for (final var chunk : chunks) {
+            if (chunk.statement() != null) statements.add(chunk.statement());
+        }
+        return statements;
+    }
+
+    /**
+     * Every token, ending with EOF, as scanning the whole source would produce them.
+     */
+    List<Token> tokens() {
+        final var tokens = new ArrayList<Token>();
+        for (final var chunk : chunks) {
+            tokens.addAll(chunk.tokens());
+        }
+        tokens.add(eof);
+        return tokens;
+    }
+
+    /**
+     * The scanner errors and then the syntax errors in the source, in the order scanning and parsing the whole
+     * source would report them.
+     */
+    List<Diagnostics.Diagnostic> diagnostics() {
+        final var diagnostics = new ArrayList<Diagnostics.Diagnostic>();
+        for (final var chunk : chunks) {
+            chunk.scanErrors().forEach(error -> diagnostics.add(chunk.absolute(error.diagnostic())));
+        }
+        diagnostics.addAll(tailErrors);
+        for (final var chunk : chunks) {
+            chunk.parseErrors().forEach(error -> diagnostics.add(chunk.absolute(error)));
+        }
+        return diagnostics;
+    }
+
+    /**
+     * How many tokens the last edit scanned, including EOF when it scanned to the end.
+     */
+    int rescannedTokens() {
+        return rescanned;
+    }
+
+    /**
+     * How many declarations the last edit parsed.
+     */
+    int reparsedDeclarations() {
+        return reparsed;
+    }
+
+    private static boolean sameText(final Token token, final Token old) {
+        return token.type() == old.type() && token.lexeme().equals(old.lexeme())
+                && Objects.equals(token.literal(), old.literal());
+    }
+
+    private static Diagnostics.Diagnostic moved(final Diagnostics.Diagnostic diagnostic, final int lines) {
+        return new Diagnostics.Diagnostic(diagnostic.kind(), diagnostic.line() + lines, diagnostic.where(),
+                diagnostic.message());
+    }
+}
@@ -0,0 +1,109 @@
+package org.craftinginterpreters.lox;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash-conses expression nodes as the parser builds them, so structurally identical side-effect-free subtrees
+ * become one shared node.
+ * Only literals, variable reads, {@code this}, groupings, unary and binary operators and indexing are shared, and only
+ * when every operand is itself shared, so evaluating a shared subtree has no side effects. Logical operators are
+ * left out because each keeps its own branch profile.
+ * Nodes are keyed by their tokens, and tokens carry their line, so apart from literals two subtrees are only shared
+ * when they are written on the same line and runtime errors still report the line they came from.
+ * A variable's slot depends on the declarations before it, so variable reads and {@code this} are only shared
+ * between {@link #barrier() barriers}; the parser raises one wherever a name may have been declared.
+ */
+final class Interner {
+    // Keys are built from tokens, literal values and operands that are already canonical, so comparing keys compares
+    // whole subtrees. Variable and this reads also record the barrier they were built after.
+    private record LiteralKey(Object value, int declaration) {
+    }
+
+    private record NameKey(Token name, int scope) {
+    }
+
+    private record GroupingKey(Expr expression) {
+    }
+
+    /**
+     * A unary operator, which has no left operand, a binary operator, or an index, whose operator is its bracket.
+     */
+    private record OperatorKey(Expr left, Token operator, Expr right) {
+    }
+
+    private final Map<Object, Expr> nodes;
+    private final Set<Expr> canonical;
+    private int scope = 0;
+    private int declaration = 0;
+
+    /**
+     * @param expectedNodes Roughly how many nodes will be built, so the tables are sized once rather than regrown.
+     */
+    Interner(final int expectedNodes) {
+        nodes = HashMap.newHashMap(expectedNodes);
+        canonical = Collections.newSetFromMap(new IdentityHashMap<>(expectedNodes));
+    }
+
+    /**
+     * @param node A node just built, whose operands have already been through the interner.
+     * @return The canonical node equal to it: either one seen before, or the node itself.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T intern(final T node) {
+        final var key = keyOf(node);
+        if (key == null) return node;
+        final var shared = nodes.putIfAbsent(key, (Expr) node);
+        if (shared != null) return (T) shared;
+        if (!(key instanceof LiteralKey || key instanceof NameKey)) canonical.add((Expr) node);
+        return node;
+    }
+
+    /**
+     * Stop variable reads built from now on sharing nodes with those built before, because a declaration in between
+     * could make the same name resolve to a different slot.
+     */
+    void barrier() {
+        scope++;
+    }
+
+    /**
+     * Stop nodes built from now on sharing with those built before at all, literals included, so the declaration
+     * about to be parsed holds no tokens of another one.
+     */
+    void isolate() {
+        declaration++;
+    }
+
+    private Object keyOf(final Object node) {
+        if (node instanceof Expr.Literal literal) return new LiteralKey(literal.value, declaration);
+        if (node instanceof Expr.Variable variable) return new NameKey(variable.name, scope);
+        if (node instanceof Expr.This self) return new NameKey(self.keyword, scope);
+        if (node instanceof Expr.Grouping grouping && pure(grouping.expression)) {
+            return new GroupingKey(grouping.expression);
+        }
+        if (node instanceof Expr.Unary unary && pure(unary.right)) {
+            return new OperatorKey(null, unary.operator, unary.right);
+        }
+        if (node instanceof Expr.Binary binary && pure(binary.left) && pure(binary.right)) {
+            return new OperatorKey(binary.left, binary.operator, binary.right);
+        }
+        if (node instanceof Expr.Index index && pure(index.object) && pure(index.index)) {
+            return new OperatorKey(index.object, index.bracket, index.index);
+        }
+        return null;
+    }
+
+    /**
+     * Whether a node was returned by the interner. Literals and names always are, so only operators are looked up.
+     */
+    private boolean pure(final Expr operand) {
+        if (operand instanceof Expr.Literal || operand instanceof Expr.Variable || operand instanceof Expr.This) {
+            return true;
+        }
+        return canonical.contains(operand);
+    }
+}
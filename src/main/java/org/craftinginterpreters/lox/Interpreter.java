@@ -1,21 +1,215 @@
 package org.craftinginterpreters.lox;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
+    /**
+     * Loop iterations after which a loop is compiled, unless configured otherwise.
+     */
+    static final long DEFAULT_OSR_THRESHOLD = 1_000;
+
+    /**
+     * A threshold no loop reaches, keeping every loop in the tree-walking tier.
+     */
+    static final long NEVER_COMPILE = Long.MAX_VALUE;
+
+    // Shared with the LoopCompiler, whose compiled code reads and writes the same state.
+    final MemoryBudget memory;
+    final Globals globals = new Globals();
+    Environment environment = null;
+    private final long osrThreshold;
+    // Modules whose declarations have run, so each runs once however many times it is imported.
+    private final Set<Module> imported = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    Interpreter() {
+        this(MemoryBudget.UNLIMITED);
+    }
+
+    /**
+     * @param memoryLimit The maximum number of bytes this interpreter may allocate for Lox values.
+     */
+    Interpreter(final long memoryLimit) {
+        this(memoryLimit, DEFAULT_OSR_THRESHOLD);
+    }
+
+    /**
+     * @param memoryLimit  The maximum number of bytes this interpreter may allocate for Lox values.
+     * @param osrThreshold The number of iterations after which a running loop is switched to compiled code,
+     *                     or {@link #NEVER_COMPILE}.
+     */
+    Interpreter(final long memoryLimit, final long osrThreshold) {
+        this.memory = new MemoryBudget(memoryLimit);
+        this.osrThreshold = osrThreshold;
+        globals.define(Globals.indexOf("clock"), new LoxCallable() {
+            @Override
+            public int arity() {
+                return 0;
+            }
+
+            @Override
+            public Object call(final Interpreter interpreter, final Object[] arguments) {
+                return (double) System.currentTimeMillis() / 1000.0;
+            }
+
+            @Override
+            public String toString() {
+                return "<native fn>";
+            }
+        });
+    }
+
     /**
      * Takes a syntax tree for a list of statements to be evaluated and printed to console.
      *
      * @param statements The statements to evaluate.
      */
     void interpret(final List<Stmt> statements) {
+        interpret(statements, Lox.diagnostics);
+    }
+
+    /**
+     * Each call gets the whole memory budget, whatever earlier calls allocated.
+     *
+     * @param statements  The statements to evaluate.
+     * @param diagnostics Where to report a runtime error that stops them.
+     */
+    void interpret(final List<Stmt> statements, final Diagnostics diagnostics) {
+        memory.reset();
         try {
             for (final var statement : statements) {
                 execute(statement);
             }
         } catch (final RuntimeError error) {
-            Lox.runtimeError(error);
+            diagnostics.runtimeError(error);
+        }
+    }
+
+    // The Resolver reports what it works out through these methods, which keep it in the nodes' runtime fields.
+    // Subclasses can override them to observe or add to the state each node carries.
+
+    /**
+     * Record where the variable read or assigned by an expression lives.
+     *
+     * @param expr The variable, assignment, {@code this} or {@code super} expression.
+     * @param slot The resolved location of the variable.
+     */
+    void resolve(final Expr expr, final Slot slot) {
+        switch (expr) {
+            case Expr.Variable variable -> variable.slot = slot;
+            case Expr.Assign assign -> assign.slot = slot;
+            case Expr.This self -> self.slot = slot;
+            case Expr.Super superExpr -> superExpr.slot = slot;
+            default -> throw new IllegalArgumentException("Not a variable access: " + expr);
+        }
+    }
+
+    /**
+     * Record where a variable, function or class declaration stores its value.
+     *
+     * @param stmt The declaration.
+     * @param slot The declared variable's location.
+     */
+    void resolveDeclaration(final Stmt stmt, final Slot slot) {
+        switch (stmt) {
+            case Stmt.Var var -> var.slot = slot;
+            case Stmt.Function function -> function.slot = slot;
+            case Stmt.Class klass -> klass.slot = slot;
+            default -> throw new IllegalArgumentException("Not a declaration: " + stmt);
+        }
+    }
+
+    /**
+     * Record how many local variables a block declares.
+     *
+     * @param stmt The block.
+     * @param size The number of slots the block's environment needs.
+     */
+    void resolveScope(final Stmt.Block stmt, final int size) {
+        stmt.scopeSize = size;
+    }
+
+    /**
+     * Record how a function's calls lay out their environment.
+     *
+     * @param stmt       The function declaration.
+     * @param frameSize  The number of slots for the parameters and the body's top-level locals.
+     * @param poolFrames Whether no closure can capture a call's environment, so it may be reused.
+     */
+    void resolveFunction(final Stmt.Function stmt, final int frameSize, final boolean poolFrames) {
+        stmt.frameSize = frameSize;
+        stmt.poolFrames = poolFrames;
+    }
+
+    /**
+     * Give a call expression its inline cache.
+     *
+     * @param expr The call expression.
+     */
+    void resolveCall(final Expr.Call expr) {
+        expr.site = new CallSite();
+    }
+
+    /**
+     * Give a property get or set its inline cache.
+     *
+     * @param expr The get or set expression.
+     */
+    void resolveProperty(final Expr expr) {
+        switch (expr) {
+            case Expr.Get get -> get.site = new PropertySite();
+            case Expr.Set set -> set.site = new PropertySite();
+            default -> throw new IllegalArgumentException("Not a property access: " + expr);
+        }
+    }
+
+    /**
+     * Give a loop its backedge counter.
+     *
+     * @param stmt The loop.
+     */
+    void resolveLoop(final Stmt.While stmt) {
+        stmt.loop = new LoopState();
+    }
+
+    /**
+     * Give a logical operator its branch profile.
+     *
+     * @param expr The logical expression.
+     */
+    void resolveLogical(final Expr.Logical expr) {
+        expr.profile = new BranchProfile();
+    }
+
+    /**
+     * Record that a return statement's value is a call, so the call can replace the returning function's.
+     *
+     * @param stmt The return statement.
+     * @param call The call in tail position.
+     */
+    void resolveTailCall(final Stmt.Return stmt, final Expr.Call call) {
+        stmt.tailCall = call;
+    }
+
+    /**
+     * Interpret an assignment, storing the value in the variable's resolved slot.
+     *
+     * @param expr The given expression.
+     * @return The assigned value.
+     */
+    @Override
+    public Object visitAssignExpr(final Expr.Assign expr) {
+        final var value = evaluate(expr.value);
+        final var slot = expr.slot;
+        if (slot.isGlobal()) {
+            globals.assign(expr.name, slot.index(), value);
+        } else {
+            environment.assign(slot.depth(), slot.index(), value);
         }
+        return value;
     }
 
     /**
@@ -27,48 +221,115 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     @Override
     public Object visitBinaryExpr(final Expr.Binary expr) {
         final var left = evaluate(expr.left);
-        final var right = evaluate(expr.right);
+        // The interner only shares side-effect-free subtrees, so one shared by both sides has the same value twice.
+        final var right = expr.right == expr.left ? left : evaluate(expr.right);
+        if (expr.numeric) return numbers(expr.operator, (double) left, (double) right);
+        return binary(expr.operator, left, right);
+    }
+
+    /**
+     * Apply an arithmetic or comparison operator whose operands {@link TypeInference} proved to be numbers, without
+     * checking their types.
+     *
+     * @param operator The operator.
+     * @param left     The left operand's value.
+     * @param right    The right operand's value.
+     * @return The result.
+     */
+    final Object numbers(final Token operator, final double left, final double right) {
+        return switch (operator.type()) {
+            case MINUS -> {
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                yield left - right;
+            }
+            case SLASH -> {
+                if (right == 0) throw new RuntimeError(operator, "Cannot divide by zero.");
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                yield left / right;
+            }
+            case STAR -> {
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                yield left * right;
+            }
+            case PLUS -> {
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                yield left + right;
+            }
+            case GREATER -> left > right;
+            case GREATER_EQUAL -> left >= right;
+            case LESS -> left < right;
+            case LESS_EQUAL -> left <= right;
+            default -> binary(operator, left, right);
+        };
+    }
 
-        return switch (expr.operator.type()) {
+    /**
+     * Apply an infix operator to operands that have already been evaluated.
+     * Arithmetic with a vector on either side works element by element.
+     *
+     * @param operator The operator.
+     * @param left     The left operand's value.
+     * @param right    The right operand's value.
+     * @return The result.
+     */
+    final Object binary(final Token operator, final Object left, final Object right) {
+        return switch (operator.type()) {
             case MINUS -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (left instanceof LoxVector || right instanceof LoxVector) {
+                    yield LoxVector.arithmetic(memory, operator, left, right);
+                }
+                checkNumberOperand(operator, left, right);
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
                 yield (double) left - (double) right;
             }
             case SLASH -> {
+                if (left instanceof LoxVector || right instanceof LoxVector) {
+                    yield LoxVector.arithmetic(memory, operator, left, right);
+                }
                 if (right instanceof Double && (double) right == 0) {
-                    throw new RuntimeError(expr.operator, "Cannot divide by zero.");
+                    throw new RuntimeError(operator, "Cannot divide by zero.");
                 }
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
                 yield (double) left / (double) right;
             }
             case STAR -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (left instanceof LoxVector || right instanceof LoxVector) {
+                    yield LoxVector.arithmetic(memory, operator, left, right);
+                }
+                checkNumberOperand(operator, left, right);
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
                 yield (double) left * (double) right;
             }
             case PLUS -> {
                 if (left instanceof Double && right instanceof Double) {
                     // Number addition.
+                    memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
                     yield (double) left + (double) right;
                 }
+                if (left instanceof LoxVector || right instanceof LoxVector) {
+                    yield LoxVector.arithmetic(memory, operator, left, right);
+                }
                 if (left instanceof String && right instanceof String) {
-                    // String concat.
+                    // String concat. Charge before building so a runaway string is never materialised.
+                    memory.allocateString(operator, ((String) left).length() + (long) ((String) right).length());
                     yield left + (String) right;
                 }
-                throw new RuntimeError(expr.operator, "Operands must be two numbers or two strings.");
+                throw new RuntimeError(operator, "Operands must be two numbers or two strings.");
             }
             case GREATER -> {
-                checkNumberOperand(expr.operator, left, right);
+                checkNumberOperand(operator, left, right);
                 yield (double) left > (double) right;
             }
             case GREATER_EQUAL -> {
-                checkNumberOperand(expr.operator, left, right);
+                checkNumberOperand(operator, left, right);
                 yield (double) left >= (double) right;
             }
             case LESS -> {
-                checkNumberOperand(expr.operator, left, right);
+                checkNumberOperand(operator, left, right);
                 yield (double) left < (double) right;
             }
             case LESS_EQUAL -> {
-                checkNumberOperand(expr.operator, left, right);
+                checkNumberOperand(operator, left, right);
                 yield (double) left <= (double) right;
             }
             case BANG_EQUAL -> !isEqual(left, right);
@@ -77,6 +338,300 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         };
     }
 
+    /**
+     * Call a function.
+     *
+     * @param expr The given expression.
+     * @return The value the callee returned.
+     */
+    @Override
+    public Object visitCallExpr(final Expr.Call expr) {
+        return call(expr, false);
+    }
+
+    /**
+     * Evaluate the callee and arguments and make the call. When the site's cache already holds the callee, the
+     * callable and arity checks it passed last time still hold, and a Lox function's arguments are evaluated straight
+     * into its frame. A method called straight off an instance, as in {@code a.b()}, is never bound: the instance
+     * goes into the method's frame as {@code this}.
+     *
+     * @param expr The call expression.
+     * @param tail Whether the call is in tail position. A Lox function is then not invoked here but handed back to
+     *             the caller's {@link LoxFunction#invoke} as a {@link TailCall}.
+     * @return The value the callee returned.
+     */
+    private Object call(final Expr.Call expr, final boolean tail) {
+        Object callee;
+        LoxInstance receiver = null;
+        if (expr.callee instanceof Expr.Get get) {
+            final var object = evaluate(get.object);
+            if (!(object instanceof LoxInstance instance)) {
+                return finishCall(expr, builtinProperty(object, get.name), null, tail);
+            }
+            final var property = get.site;
+            final var entry = property.get(instance.shape, get.name);
+            final var slot = property.slots[entry];
+            if (slot == Shape.Property.METHOD) {
+                callee = property.methods[entry];
+                receiver = instance;
+            } else {
+                callee = instance.fields[slot];
+            }
+        } else {
+            callee = evaluate(expr.callee);
+        }
+        return finishCall(expr, callee, receiver, tail);
+    }
+
+    /**
+     * Make a call once the callee is known.
+     *
+     * @param expr     The call expression.
+     * @param callee   The value being called.
+     * @param receiver The instance a method is being called on, or null.
+     * @param tail     Whether the call is in tail position.
+     * @return The value the callee returned.
+     */
+    private Object finishCall(final Expr.Call expr, Object callee, LoxInstance receiver, final boolean tail) {
+        if (callee instanceof BoundMethod bound) {
+            callee = bound.method;
+            receiver = bound.receiver;
+        }
+        final var site = expr.site;
+
+        if (callee == site.target && callee instanceof LoxFunction function) {
+            final var frame = function.acquireFrame();
+            final var first = function.firstParameter();
+            if (receiver != null) frame.values[0] = receiver;
+            try {
+                for (var i = 0; i < expr.arguments.size(); i++) {
+                    frame.values[first + i] = evaluate(expr.arguments.get(i));
+                }
+            } catch (final RuntimeError error) {
+                function.releaseFrame(frame);
+                throw error;
+            }
+            return enter(function, frame, tail);
+        }
+
+        final var arguments = new Object[expr.arguments.size()];
+        for (var i = 0; i < arguments.length; i++) {
+            arguments[i] = evaluate(expr.arguments.get(i));
+        }
+        if (site.target == null || callee != site.target) {
+            if (!(callee instanceof LoxCallable callable)) {
+                throw new RuntimeError(expr.paren, "Can only call functions and classes.");
+            }
+            if (arguments.length != callable.arity()) {
+                throw new RuntimeError(expr.paren,
+                        "Expected %d arguments but got %d.".formatted(callable.arity(), arguments.length));
+            }
+            site.target = callable;
+        }
+
+        if (site.target instanceof LoxFunction function) {
+            final var frame = function.acquireFrame();
+            if (receiver != null) frame.values[0] = receiver;
+            System.arraycopy(arguments, 0, frame.values, function.firstParameter(), arguments.length);
+            return enter(function, frame, tail);
+        }
+        if (site.target instanceof LoxClass) {
+            memory.allocate(expr.paren, MemoryBudget.INSTANCE_BYTES);
+        }
+        return site.target.call(this, arguments);
+    }
+
+    private Object enter(final LoxFunction function, final Environment frame, final boolean tail) {
+        if (tail) throw new TailCall(function, frame);
+        return function.invoke(this, frame);
+    }
+
+    /**
+     * Read a field or, when there is no such field, bind a method to the instance.
+     *
+     * @param expr The given expression.
+     * @return The field's value or the bound method.
+     */
+    @Override
+    public Object visitGetExpr(final Expr.Get expr) {
+        final var object = evaluate(expr.object);
+        if (!(object instanceof LoxInstance instance)) {
+            return builtinProperty(object, expr.name);
+        }
+        final var site = expr.site;
+        final var entry = site.get(instance.shape, expr.name);
+        final var slot = site.slots[entry];
+        if (slot == Shape.Property.METHOD) {
+            return new BoundMethod(instance, site.methods[entry]);
+        }
+        return instance.fields[slot];
+    }
+
+    /**
+     * Read a property of a list ({@code length}, {@code append}, {@code toVector}), a map ({@code length},
+     * {@code has}, {@code remove}) or a vector ({@code length}, {@code sum}, {@code min}, {@code max}), the only
+     * properties values other than instances have.
+     *
+     * @param object The value the property is read from.
+     * @param name   The property name.
+     * @return The property's value.
+     */
+    private Object builtinProperty(final Object object, final Token name) {
+        if (object instanceof LoxList list) {
+            return switch (name.lexeme()) {
+                case "length" -> (double) list.size();
+                case "append" -> new ListMethod(list, ListMethod.Kind.APPEND, name);
+                case "toVector" -> new ListMethod(list, ListMethod.Kind.TO_VECTOR, name);
+                default -> throw new RuntimeError(name, "Undefined property '%s'.".formatted(name.lexeme()));
+            };
+        }
+        if (object instanceof LoxMap map) {
+            return switch (name.lexeme()) {
+                case "length" -> (double) map.size();
+                case "has" -> new MapMethod(map, MapMethod.Kind.HAS);
+                case "remove" -> new MapMethod(map, MapMethod.Kind.REMOVE);
+                default -> throw new RuntimeError(name, "Undefined property '%s'.".formatted(name.lexeme()));
+            };
+        }
+        if (object instanceof LoxVector vector) {
+            return switch (name.lexeme()) {
+                case "length" -> (double) vector.values.length;
+                case "sum" -> new VectorMethod(vector, VectorMethod.Kind.SUM, name);
+                case "min" -> new VectorMethod(vector, VectorMethod.Kind.MIN, name);
+                case "max" -> new VectorMethod(vector, VectorMethod.Kind.MAX, name);
+                default -> throw new RuntimeError(name, "Undefined property '%s'.".formatted(name.lexeme()));
+            };
+        }
+        throw new RuntimeError(name, "Only instances have properties.");
+    }
+
+    /**
+     * Read an element of a list, map or vector.
+     *
+     * @param expr The given expression.
+     * @return The element.
+     */
+    @Override
+    public Object visitIndexExpr(final Expr.Index expr) {
+        final var object = evaluate(expr.object);
+        return index(expr.bracket, object, evaluate(expr.index));
+    }
+
+    /**
+     * Read an element of a list or vector, or a map's value for a key, once the collection and index have been
+     * evaluated.
+     *
+     * @param bracket The opening bracket, used to report errors.
+     * @param object  The value being indexed.
+     * @param index   The index's value.
+     * @return The element, or nil for a key the map does not hold.
+     */
+    final Object index(final Token bracket, final Object object, final Object index) {
+        if (object instanceof LoxMap map) return map.get(index);
+        if (object instanceof LoxVector vector) {
+            memory.allocate(bracket, MemoryBudget.NUMBER_BYTES);
+            return vector.values[position(bracket, "vector", vector.values.length, index)];
+        }
+        final var list = list(bracket, object);
+        return list.get(position(bracket, "list", list.size(), index));
+    }
+
+    /**
+     * Replace an element of a list or vector, or store a value in a map.
+     *
+     * @param expr The given expression.
+     * @return The stored value.
+     */
+    @Override
+    public Object visitIndexSetExpr(final Expr.IndexSet expr) {
+        final var object = evaluate(expr.object);
+        final var index = evaluate(expr.index);
+        return indexSet(expr.bracket, object, index, evaluate(expr.value));
+    }
+
+    /**
+     * Replace an element of a list or vector, or store a value in a map, once the collection, index and value have
+     * been evaluated.
+     *
+     * @param bracket The opening bracket, used to report errors.
+     * @param object  The value being indexed.
+     * @param index   The index's value.
+     * @param value   The new element.
+     * @return The stored value.
+     */
+    final Object indexSet(final Token bracket, final Object object, final Object index, final Object value) {
+        if (object instanceof LoxMap map) {
+            map.put(memory, bracket, index, value);
+            return value;
+        }
+        if (object instanceof LoxVector vector) {
+            final var position = position(bracket, "vector", vector.values.length, index);
+            if (!(value instanceof Double number)) {
+                throw new RuntimeError(bracket, "Vector elements must be numbers.");
+            }
+            vector.values[position] = number;
+            return value;
+        }
+        final var list = list(bracket, object);
+        list.set(memory, bracket, position(bracket, "list", list.size(), index), value);
+        return value;
+    }
+
+    /**
+     * Build a list from its elements, in order.
+     *
+     * @param expr The given expression.
+     * @return The new list.
+     */
+    @Override
+    public Object visitListLiteralExpr(final Expr.ListLiteral expr) {
+        memory.allocate(expr.bracket, MemoryBudget.LIST_BYTES);
+        final var list = new LoxList(expr.elements.size());
+        for (final var element : expr.elements) {
+            list.append(memory, expr.bracket, evaluate(element));
+        }
+        return list;
+    }
+
+    /**
+     * Build a map from its entries, in order, so a repeated key keeps its last value.
+     *
+     * @param expr The given expression.
+     * @return The new map.
+     */
+    @Override
+    public Object visitMapLiteralExpr(final Expr.MapLiteral expr) {
+        memory.allocate(expr.brace, MemoryBudget.MAP_BYTES);
+        final var map = new LoxMap();
+        for (var i = 0; i < expr.keys.size(); i++) {
+            final var key = evaluate(expr.keys.get(i));
+            map.put(memory, expr.brace, key, evaluate(expr.values.get(i)));
+        }
+        return map;
+    }
+
+    private static LoxList list(final Token bracket, final Object object) {
+        if (object instanceof LoxList list) return list;
+        throw new RuntimeError(bracket, "Only lists, maps and vectors can be indexed.");
+    }
+
+    /**
+     * Check that an index is a whole number within a list or vector of the given length.
+     */
+    private static int position(final Token bracket, final String kind, final int length, final Object index) {
+        if (!(index instanceof Double number)) {
+            throw new RuntimeError(bracket, "Index must be a number.");
+        }
+        if (Math.rint(number) != number) {
+            throw new RuntimeError(bracket, "Index must be a whole number.");
+        }
+        if (number < 0 || number >= length) {
+            throw new RuntimeError(bracket, "Index %s is out of bounds for a %s of length %d.".formatted(
+                    stringify(number), kind, length));
+        }
+        return (int) (double) number;
+    }
+
     /**
      * Interpret a grouped expression - a node which uses explicit parenthesis.
      *
@@ -99,6 +654,90 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return expr.value;
     }
 
+    /**
+     * Interpret {@code and} or {@code or}, only evaluating the right operand when the left doesn't decide the result.
+     *
+     * @param expr The given expression.
+     * @return The value of whichever operand decided the result.
+     */
+    @Override
+    public Object visitLogicalExpr(final Expr.Logical expr) {
+        final var left = evaluate(expr.left);
+        if (shortCircuits(expr, left)) return left;
+        return evaluate(expr.right);
+    }
+
+    /**
+     * Whether a logical operator's left operand decides its result, recording the outcome in its branch profile.
+     *
+     * @param expr The logical expression.
+     * @param left The value of its left operand.
+     * @return True when the right operand must not be evaluated.
+     */
+    final boolean shortCircuits(final Expr.Logical expr, final Object left) {
+        final var decided = expr.operator.type() == TokenType.OR ? isTruthy(left) : !isTruthy(left);
+        final var profile = expr.profile;
+        if (decided) {
+            profile.leftDecided++;
+        } else {
+            profile.rightDecided++;
+        }
+        return decided;
+    }
+
+    /**
+     * Store a value in a field, adding the field if the instance doesn't have it yet.
+     *
+     * @param expr The given expression.
+     * @return The stored value.
+     */
+    @Override
+    public Object visitSetExpr(final Expr.Set expr) {
+        final var instance = instance(evaluate(expr.object), expr.name, "Only instances have fields.");
+        final var value = evaluate(expr.value);
+        final var site = expr.site;
+        final var entry = site.set(instance.shape, expr.name);
+        final var slot = site.slots[entry];
+        if (slot >= 0) {
+            instance.set(slot, value);
+        } else {
+            memory.allocate(expr.name, MemoryBudget.FIELD_BYTES);
+            instance.add(site.transitions[entry], value);
+        }
+        return value;
+    }
+
+    /**
+     * Look a method up on the superclass of the method's class, binding it to the current instance.
+     *
+     * @param expr The given expression.
+     * @return The bound method.
+     */
+    @Override
+    public Object visitSuperExpr(final Expr.Super expr) {
+        final var slot = expr.slot;
+        final var superclass = (LoxClass) environment.get(slot.depth(), slot.index());
+        // The method's frame, holding this, is directly inside the scope holding super.
+        final var instance = (LoxInstance) environment.get(slot.depth() - 1, 0);
+        final var method = superclass.findMethod(expr.method.lexeme());
+        if (method == null) {
+            throw new RuntimeError(expr.method, "Undefined property '%s'.".formatted(expr.method.lexeme()));
+        }
+        return new BoundMethod(instance, method);
+    }
+
+    /**
+     * Interpret {@code this}, which lives in the first slot of the method's frame.
+     *
+     * @param expr The given expression.
+     * @return The instance the method was called on.
+     */
+    @Override
+    public Object visitThisExpr(final Expr.This expr) {
+        final var slot = expr.slot;
+        return environment.get(slot.depth(), slot.index());
+    }
+
     /**
      * Interprets a unary (- or !) expression.
      *
@@ -108,16 +747,90 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     @Override
     public Object visitUnaryExpr(final Expr.Unary expr) {
         final var right = evaluate(expr.right);
-        return switch (expr.operator.type()) {
+        if (expr.numeric) {
+            memory.allocate(expr.operator, MemoryBudget.NUMBER_BYTES);
+            return -(double) right;
+        }
+        return unary(expr.operator, right);
+    }
+
+    /**
+     * Apply a prefix operator to an operand that has already been evaluated.
+     *
+     * @param operator The operator.
+     * @param right    The operand's value.
+     * @return The result.
+     */
+    final Object unary(final Token operator, final Object right) {
+        return switch (operator.type()) {
             case BANG -> !isTruthy(right);
             case MINUS -> {
-                checkNumberOperand(expr.operator, right);
+                checkNumberOperand(operator, right);
+                memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
                 yield -(double) right;
             }
             default -> null; // Unreachable code.
         };
     }
 
+    /**
+     * Interpret a variable by reading its resolved slot.
+     *
+     * @param expr The given expression.
+     * @return The variable's value.
+     */
+    @Override
+    public Object visitVariableExpr(final Expr.Variable expr) {
+        final var slot = expr.slot;
+        if (slot.isGlobal()) {
+            return globals.get(expr.name, slot.index());
+        }
+        return environment.get(slot.depth(), slot.index());
+    }
+
+    /**
+     * Execute a block's statements in a new scope.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitBlockStmt(final Stmt.Block stmt) {
+        executeBlock(stmt.statements, new Environment(environment, stmt.scopeSize));
+        return null;
+    }
+
+    /**
+     * Declare a class. When it has a superclass, its methods close over an extra scope holding it as super.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitClassStmt(final Stmt.Class stmt) {
+        LoxClass superclass = null;
+        var closure = environment;
+        if (stmt.superclass != null) {
+            if (!(evaluate(stmt.superclass) instanceof LoxClass klass)) {
+                throw new RuntimeError(stmt.superclass.name, "Superclass must be a class.");
+            }
+            superclass = klass;
+            closure = new Environment(environment, 1);
+            closure.values[0] = superclass;
+        }
+
+        final var methods = new HashMap<String, LoxFunction>();
+        for (final var method : stmt.methods) {
+            final var kind = method.name.lexeme().equals("init")
+                    ? LoxFunction.Kind.INITIALIZER : LoxFunction.Kind.METHOD;
+            methods.put(method.name.lexeme(),
+                    new LoxFunction(method, closure, method.frameSize, method.poolFrames, kind));
+        }
+
+        define(stmt.slot, new LoxClass(stmt.name.lexeme(), superclass, methods));
+        return null;
+    }
+
     /**
      * Evaluate the statement's inner expression.
      *
@@ -130,6 +843,51 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return null;
     }
 
+    /**
+     * Declare a function, closing over the current environment.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitFunctionStmt(final Stmt.Function stmt) {
+        define(stmt.slot, new LoxFunction(stmt, environment, stmt.frameSize, stmt.poolFrames,
+                LoxFunction.Kind.FUNCTION));
+        return null;
+    }
+
+    /**
+     * Execute one branch or the other depending on the condition.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitIfStmt(final Stmt.If stmt) {
+        if (isTruthy(evaluate(stmt.condition))) {
+            execute(stmt.thenBranch);
+        } else if (stmt.elseBranch != null) {
+            execute(stmt.elseBranch);
+        }
+        return null;
+    }
+
+    /**
+     * Run an imported module's declarations in the global scope, unless this interpreter has already run them.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitImportStmt(final Stmt.Import stmt) {
+        if (imported.add(stmt.module)) {
+            for (final var statement : stmt.module.statements()) {
+                execute(statement);
+            }
+        }
+        return null;
+    }
+
     /**
      * Print a statement to console.
      *
@@ -143,12 +901,94 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return null;
     }
 
+    /**
+     * Unwind to the enclosing call with the returned value. A returned call to a Lox function unwinds first and is
+     * made by the enclosing call instead.
+     *
+     * @param stmt The statement.
+     * @return Never returns normally.
+     */
+    @Override
+    public Void visitReturnStmt(final Stmt.Return stmt) {
+        final var tailCall = stmt.tailCall;
+        if (tailCall != null) {
+            throw new Return(call(tailCall, true));
+        }
+        final var value = stmt.value == null ? null : evaluate(stmt.value);
+        throw new Return(value);
+    }
+
+    /**
+     * Declare a variable, initialising it to nil when no initializer is given.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitVarStmt(final Stmt.Var stmt) {
+        define(stmt.slot, stmt.initializer == null ? null : evaluate(stmt.initializer));
+        return null;
+    }
+
+    /**
+     * Run a loop. Every completed iteration is a backedge; once a loop has taken enough of them it is compiled,
+     * and the running loop carries on in compiled code from its next condition check. All loop state lives in
+     * environment slots, so nothing needs transferring between the tiers. Compiled code is bound to the interpreter
+     * that compiled it, so a tree run by another interpreter stays in the tree-walking tier.
+     *
+     * @param stmt The statement.
+     * @return Nothing. Not required.
+     */
+    @Override
+    public Void visitWhileStmt(final Stmt.While stmt) {
+        final var loop = stmt.loop;
+        while (loop.compiled == null || loop.compiledBy != this) {
+            if (!isTruthy(evaluate(stmt.condition))) return null;
+            execute(stmt.body);
+            if (++loop.backedges == osrThreshold) {
+                loop.compiled = new LoopCompiler(this).compile(stmt);
+                loop.compiledBy = this;
+            }
+        }
+        loop.compiled.execute();
+        return null;
+    }
+
+    /**
+     * Store a newly declared value in the declaration's resolved slot.
+     */
+    private void define(final Slot slot, final Object value) {
+        if (slot.isGlobal()) {
+            globals.define(slot.index(), value);
+        } else {
+            environment.values[slot.index()] = value;
+        }
+    }
+
+    /**
+     * Execute statements in the given environment, restoring the current one afterwards.
+     *
+     * @param statements  The statements to execute.
+     * @param environment The environment holding the statements' local variables.
+     */
+    void executeBlock(final List<Stmt> statements, final Environment environment) {
+        final var previous = this.environment;
+        try {
+            this.environment = environment;
+            for (final var statement : statements) {
+                execute(statement);
+            }
+        } finally {
+            this.environment = previous;
+        }
+    }
+
     /**
      * Execute the statement via visitor pattern.
      *
      * @param stmt The statement to execute.
      */
-    private void execute(final Stmt stmt) {
+    void execute(final Stmt stmt) {
         stmt.accept(this);
     }
 
@@ -158,10 +998,23 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
      * @param expr The grouped expression/node.
      * @return The evaluated expression.
      */
-    private Object evaluate(final Expr expr) {
+    Object evaluate(final Expr expr) {
         return expr.accept(this);
     }
 
+    /**
+     * Check that the object of a property access is an instance.
+     *
+     * @param object  The object's value.
+     * @param name    The property name, used to report the error.
+     * @param message The error when it isn't an instance.
+     * @return The instance.
+     */
+    private static LoxInstance instance(final Object object, final Token name, final String message) {
+        if (object instanceof LoxInstance instance) return instance;
+        throw new RuntimeError(name, message);
+    }
+
     /**
      * Will convert an expression into a boolean.
      * Follows Ruby's simple rule: false and nil are falsey, otherwise is truthy.
@@ -169,7 +1022,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
      * @param object The dynamic expression.
      * @return Whether the expression is truthy or falsey.
      */
-    private boolean isTruthy(final Object object) {
+    static boolean isTruthy(final Object object) {
         if (object == null) return false;
         if (object instanceof Boolean) return (boolean) object;
         return true;
@@ -183,7 +1036,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
      * @param b The second parameter.
      * @return Whether first parameter equals second parameter.
      */
-    private boolean isEqual(final Object a, final Object b) {
+    static boolean isEqual(final Object a, final Object b) {
         if (a == null && b == null) return true;
         if (a == null) return false;
         return (a.equals(b));
@@ -218,7 +1071,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
      * @param object The expression.
      * @return A string to be printed to console.
      */
-    private String stringify(final Object object) {
+    static String stringify(final Object object) {
         if (object == null) return "nil";
         if (object instanceof Double) {
             var text = object.toString();
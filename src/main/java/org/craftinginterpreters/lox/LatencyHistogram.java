@@ -0,0 +1,42 @@
+package org.craftinginterpreters.lox;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations with one bucket per power of two microseconds.
+ * Bucket {@code i} counts durations below {@code 2^i} microseconds; the last bucket counts everything longer.
+ */
+final class LatencyHistogram {
+    static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Count one occurrence of the given duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    void record(final long nanos) {
+        final var micros = Math.max(nanos / 1_000, 0);
+        // Number of bits needed to represent the micros, i.e. the smallest i such that micros < 2^i.
+        final var bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        counts.incrementAndGet(bucket);
+    }
+
+    long[] snapshot() {
+        final var snapshot = new long[BUCKETS];
+        for (var i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    static long[] upperBoundsMicros() {
+        final var bounds = new long[BUCKETS];
+        for (var i = 0; i < BUCKETS - 1; i++) {
+            bounds[i] = (1L << i) - 1;
+        }
+        bounds[BUCKETS - 1] = Long.MAX_VALUE;
+        return bounds;
+    }
+}
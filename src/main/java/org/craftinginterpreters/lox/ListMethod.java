@@ -0,0 +1,46 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A list's {@code append} or {@code toVector} method, read off the list as a value.
+ */
+final class ListMethod implements LoxCallable {
+    enum Kind {
+        APPEND, TO_VECTOR
+    }
+
+    private final LoxList list;
+    private final Kind kind;
+    private final Token name;
+
+    /**
+     * @param list The list the method works on.
+     * @param kind Which method it is.
+     * @param name The property token the method was read through, used to report errors.
+     */
+    ListMethod(final LoxList list, final Kind kind, final Token name) {
+        this.list = list;
+        this.kind = kind;
+        this.name = name;
+    }
+
+    @Override
+    public int arity() {
+        return kind == Kind.APPEND ? 1 : 0;
+    }
+
+    @Override
+    public Object call(final Interpreter interpreter, final Object[] arguments) {
+        return switch (kind) {
+            case APPEND -> {
+                list.append(interpreter.memory, name, arguments[0]);
+                yield null;
+            }
+            case TO_VECTOR -> LoxVector.of(interpreter.memory, name, list);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
@@ -0,0 +1,309 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * The faster tier for hot loops. A loop is compiled once into a tree of closures that have the resolver's slots,
+ * operators and constants baked in, so running it does no visitor dispatch, node field reads or operator switches.
+ * Arithmetic and comparisons on numbers take a direct path; anything else falls back to the interpreter's own
+ * operator logic, so errors and memory charges are identical in both tiers.
+ * Node types without a compiled form - calls, property access, list and map literals, declarations, returns -
+ * are handed back to the interpreter, which runs them against the same environment.
+ */
+final class LoopCompiler {
+    /**
+     * A compiled statement.
+     */
+    @FunctionalInterface
+    interface Code {
+        void execute();
+    }
+
+    /**
+     * A compiled expression.
+     */
+    @FunctionalInterface
+    interface Value {
+        Object evaluate();
+    }
+
+    private final Interpreter interpreter;
+
+    LoopCompiler(final Interpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * Compile a loop, to be started at its condition check.
+     *
+     * @param stmt A resolved loop.
+     * @return The compiled loop.
+     */
+    Code compile(final Stmt.While stmt) {
+        final var condition = compile(stmt.condition);
+        final var body = compile(stmt.body);
+        return () -> {
+            while (Interpreter.isTruthy(condition.evaluate())) {
+                body.execute();
+            }
+        };
+    }
+
+    private Code compile(final Stmt stmt) {
+        if (stmt instanceof Stmt.Expression expression) {
+            final var value = compile(expression.expression);
+            return value::evaluate;
+        }
+        if (stmt instanceof Stmt.Print print) {
+            final var value = compile(print.expression);
+            return () -> System.out.println(Interpreter.stringify(value.evaluate()));
+        }
+        if (stmt instanceof Stmt.Var var) {
+            return declaration(var);
+        }
+        if (stmt instanceof Stmt.Block block) {
+            return block(block);
+        }
+        if (stmt instanceof Stmt.If branch) {
+            final var condition = compile(branch.condition);
+            final var thenBranch = compile(branch.thenBranch);
+            final Code elseBranch = branch.elseBranch == null ? () -> { } : compile(branch.elseBranch);
+            return () -> {
+                if (Interpreter.isTruthy(condition.evaluate())) {
+                    thenBranch.execute();
+                } else {
+                    elseBranch.execute();
+                }
+            };
+        }
+        if (stmt instanceof Stmt.While loop) {
+            return compile(loop);
+        }
+        return () -> interpreter.execute(stmt);
+    }
+
+    private Code declaration(final Stmt.Var stmt) {
+        final Value initializer = stmt.initializer == null ? () -> null : compile(stmt.initializer);
+        final var slot = stmt.slot;
+        final var index = slot.index();
+        if (slot.isGlobal()) {
+            return () -> interpreter.globals.define(index, initializer.evaluate());
+        }
+        return () -> interpreter.environment.values[index] = initializer.evaluate();
+    }
+
+    private Code block(final Stmt.Block stmt) {
+        final var statements = new Code[stmt.statements.size()];
+        for (var i = 0; i < statements.length; i++) {
+            statements[i] = compile(stmt.statements.get(i));
+        }
+        final var size = stmt.scopeSize;
+        return () -> {
+            final var previous = interpreter.environment;
+            try {
+                interpreter.environment = new Environment(previous, size);
+                for (final var statement : statements) {
+                    statement.execute();
+                }
+            } finally {
+                interpreter.environment = previous;
+            }
+        };
+    }
+
+    private Value compile(final Expr expr) {
+        if (expr instanceof Expr.Literal literal) {
+            final var value = literal.value;
+            return () -> value;
+        }
+        if (expr instanceof Expr.Grouping grouping) {
+            return compile(grouping.expression);
+        }
+        if (expr instanceof Expr.Variable variable) {
+            return read(variable.name, variable.slot);
+        }
+        if (expr instanceof Expr.This self) {
+            return read(self.keyword, self.slot);
+        }
+        if (expr instanceof Expr.Assign assign) {
+            return assignment(assign);
+        }
+        if (expr instanceof Expr.Unary unary) {
+            return unary(unary);
+        }
+        if (expr instanceof Expr.Binary binary) {
+            return binary(binary);
+        }
+        if (expr instanceof Expr.Logical logical) {
+            return logical(logical);
+        }
+        if (expr instanceof Expr.Index index) {
+            final var object = compile(index.object);
+            final var position = compile(index.index);
+            final var bracket = index.bracket;
+            return () -> {
+                final var list = object.evaluate();
+                return interpreter.index(bracket, list, position.evaluate());
+            };
+        }
+        if (expr instanceof Expr.IndexSet indexSet) {
+            final var object = compile(indexSet.object);
+            final var position = compile(indexSet.index);
+            final var value = compile(indexSet.value);
+            final var bracket = indexSet.bracket;
+            return () -> {
+                final var list = object.evaluate();
+                final var index = position.evaluate();
+                return interpreter.indexSet(bracket, list, index, value.evaluate());
+            };
+        }
+        return () -> interpreter.evaluate(expr);
+    }
+
+    /**
+     * Lay a logical operator out so that the outcome its branch profile saw most often is tested for first.
+     * The profile goes on being updated.
+     */
+    private Value logical(final Expr.Logical expr) {
+        final var left = compile(expr.left);
+        final var right = compile(expr.right);
+        final var profile = expr.profile;
+        // `or` short-circuits when the left operand is truthy, `and` when it is falsey.
+        final var decidingTruth = expr.operator.type() == TokenType.OR;
+        if (profile.mostlyShortCircuits()) {
+            return () -> {
+                final var value = left.evaluate();
+                if (Interpreter.isTruthy(value) == decidingTruth) {
+                    profile.leftDecided++;
+                    return value;
+                }
+                profile.rightDecided++;
+                return right.evaluate();
+            };
+        }
+        return () -> {
+            final var value = left.evaluate();
+            if (Interpreter.isTruthy(value) != decidingTruth) {
+                profile.rightDecided++;
+                return right.evaluate();
+            }
+            profile.leftDecided++;
+            return value;
+        };
+    }
+
+    private Value read(final Token name, final Slot slot) {
+        final var index = slot.index();
+        final var depth = slot.depth();
+        if (slot.isGlobal()) {
+            return () -> interpreter.globals.get(name, index);
+        }
+        return switch (depth) {
+            case 0 -> () -> interpreter.environment.values[index];
+            case 1 -> () -> interpreter.environment.enclosing.values[index];
+            default -> () -> interpreter.environment.get(depth, index);
+        };
+    }
+
+    private Value assignment(final Expr.Assign expr) {
+        final var value = compile(expr.value);
+        final var name = expr.name;
+        final var slot = expr.slot;
+        final var index = slot.index();
+        final var depth = slot.depth();
+        if (slot.isGlobal()) {
+            return () -> {
+                final var result = value.evaluate();
+                interpreter.globals.assign(name, index, result);
+                return result;
+            };
+        }
+        if (depth == 0) {
+            return () -> interpreter.environment.values[index] = value.evaluate();
+        }
+        return () -> {
+            final var result = value.evaluate();
+            interpreter.environment.assign(depth, index, result);
+            return result;
+        };
+    }
+
+    private Value unary(final Expr.Unary expr) {
+        final var right = compile(expr.right);
+        final var operator = expr.operator;
+        if (operator.type() == TokenType.MINUS) {
+            return () -> {
+                final var operand = right.evaluate();
+                if (operand instanceof Double number) {
+                    interpreter.memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                    return -number;
+                }
+                return interpreter.unary(operator, operand);
+            };
+        }
+        return () -> interpreter.unary(operator, right.evaluate());
+    }
+
+    private Value binary(final Expr.Binary expr) {
+        final var left = compile(expr.left);
+        final var right = compile(expr.right);
+        // An operand shared by both sides is free of side effects, so it is evaluated once.
+        final var same = expr.right == expr.left;
+        final var operator = expr.operator;
+        return switch (operator.type()) {
+            case PLUS -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) {
+                    interpreter.memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                    return x + y;
+                }
+                return interpreter.binary(operator, a, b);
+            };
+            case MINUS -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) {
+                    interpreter.memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                    return x - y;
+                }
+                return interpreter.binary(operator, a, b);
+            };
+            case STAR -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) {
+                    interpreter.memory.allocate(operator, MemoryBudget.NUMBER_BYTES);
+                    return x * y;
+                }
+                return interpreter.binary(operator, a, b);
+            };
+            case LESS -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) return x < y;
+                return interpreter.binary(operator, a, b);
+            };
+            case LESS_EQUAL -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) return x <= y;
+                return interpreter.binary(operator, a, b);
+            };
+            case GREATER -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) return x > y;
+                return interpreter.binary(operator, a, b);
+            };
+            case GREATER_EQUAL -> () -> {
+                final var a = left.evaluate();
+                final var b = same ? a : right.evaluate();
+                if (a instanceof Double x && b instanceof Double y) return x >= y;
+                return interpreter.binary(operator, a, b);
+            };
+            default -> () -> {
+                final var a = left.evaluate();
+                return interpreter.binary(operator, a, same ? a : right.evaluate());
+            };
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * The backedges taken by a loop, and its compiled form once it has been promoted.
+ */
+final class LoopState {
+    long backedges = 0;
+    LoopCompiler.Code compiled = null;
+    // Compiled code reads and writes this interpreter's environments.
+    Interpreter compiledBy = null;
+}
@@ -4,17 +4,65 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 
 public class Lox {
-    private static final Interpreter interpreter = new Interpreter();
-    static boolean hadError = false;
-    static boolean hadRuntimeError = false;
+    /**
+     * Upper bound on the total bytes of Lox values one script, REPL entry or watched run may allocate, counting values
+     * that have since become garbage, e.g. {@code -Dlox.memoryLimit=268435456}.
+     */
+    private static final long MEMORY_LIMIT = Long.getLong("lox.memoryLimit", MemoryBudget.UNLIMITED);
+    /**
+     * Parse and evaluate with explicit heap stacks so pathologically deep expressions cannot overflow the Java stack,
+     * e.g. {@code -Dlox.stackSafe=true}.
+     */
+    private static final boolean STACK_SAFE = Boolean.getBoolean("lox.stackSafe");
+    /**
+     * Loop iterations after which a running loop is switched to compiled code, e.g. {@code -Dlox.osrThreshold=100}.
+     */
+    private static final long OSR_THRESHOLD = Long.getLong("lox.osrThreshold", Interpreter.DEFAULT_OSR_THRESHOLD);
+    /**
+     * How long {@code --watch} waits after a file changes for further changes before running it, e.g.
+     * {@code -Dlox.watchDebounce=200}.
+     */
+    private static final long WATCH_DEBOUNCE_MILLIS = Long.getLong("lox.watchDebounce", 100);
+    private static final String PROFILE_OPTION = "--profile=";
+    private static final String CHECK_OPTION = "--check";
+    private static final String WATCH_OPTION = "--watch";
+    private static Interpreter interpreter = newInterpreter();
+    private static String profileOutput = null;
+    /**
+     * Collects the errors from every phase; {@link #run(List, Path)} prints them to standard error once per phase.
+     */
+    static final Diagnostics diagnostics = new Diagnostics();
+    /**
+     * Keeps every imported module parsed for the life of the process.
+     */
+    static final ModuleLoader modules = new ModuleLoader(STACK_SAFE);
 
     public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals(CHECK_OPTION)) {
+            checkFiles(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(WATCH_OPTION)) {
+            watchFiles(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].startsWith(PROFILE_OPTION)) {
+            profileOutput = args[0].substring(PROFILE_OPTION.length());
+            interpreter = new ProfilingInterpreter(MEMORY_LIMIT);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
         if (args.length > 1) {
-            System.out.println("Usage: jlox [script]");
+            System.out.println("Usage: jlox [--profile=<output>] [script] | jlox --check|--watch <path>...");
             System.exit(64);
         } else if (args.length == 1) {
             runFile(args[0]);
@@ -30,93 +78,165 @@ public class Lox {
      * @throws IOException Error reading file.
      */
     private static void runFile(String path) throws IOException {
-        final var bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
+        final var file = Paths.get(path).toAbsolutePath();
+        final var bytes = Files.readAllBytes(file);
+        run(scan(new String(bytes, Charset.defaultCharset())), file.getParent());
+        writeProfile();
 
         // Indicate any errors in the exit code.
-        if (hadError) {
+        if (diagnostics.hadError()) {
             System.exit(65);
         }
-        if (hadRuntimeError) {
+        if (diagnostics.hadRuntimeError()) {
             System.exit(70);
         }
     }
 
     /**
-     * Run in interactive mode.
+     * Scan and parse every file without running anything, printing all of their syntax errors.
      *
-     * @throws IOException Error reading input from terminal.
+     * @param paths Lox files, and directories to search for {@code .lox} files.
+     * @throws IOException Error reading a file.
      */
-    private static void runPrompt() throws IOException {
-        final var input = new InputStreamReader(System.in);
-        final var reader = new BufferedReader(input);
-
-        for (; ; ) {
-            System.out.println("> ");
-            final var line = reader.readLine();
-            if (line == null) {
-                break;
-            }
-            run(line);
-            hadError = false;
+    private static void checkFiles(final String[] paths) throws IOException {
+        if (paths.length == 0) {
+            System.out.println("Usage: jlox --check <path>...");
+            System.exit(64);
+        }
+        final var results = new Checker(STACK_SAFE).check(Arrays.stream(paths).map(Path::of).toList());
+        if (Checker.report(results, System.err)) {
+            System.exit(65);
+        }
+    }
+
+    /**
+     * Run every script, then run each again whenever it changes, until the process is stopped.
+     *
+     * @param paths Lox files, and directories to search for {@code .lox} files.
+     * @throws IOException Error listing a directory.
+     */
+    private static void watchFiles(final String[] paths) throws IOException {
+        if (paths.length == 0) {
+            System.out.println("Usage: jlox --watch <path>...");
+            System.exit(64);
         }
+        new Watcher(Arrays.stream(paths).map(Path::of).toList(), STACK_SAFE, Lox::newInterpreter, modules,
+                Duration.ofMillis(WATCH_DEBOUNCE_MILLIS), System.err).watch();
     }
 
-    private static void run(final String source) {
-        final var scanner = new Scanner(source);
-        final var tokens = scanner.scanTokens();
+    private static Interpreter newInterpreter() {
+        return STACK_SAFE ? new StackSafeInterpreter(MEMORY_LIMIT) : new Interpreter(MEMORY_LIMIT, OSR_THRESHOLD);
+    }
 
-        final var parser = new Parser(tokens);
-        final var statements = parser.parse();
+    /**
+     * Run a session reading entries from standard input, prompting for them when it is a terminal.
+     *
+     * @throws IOException Error reading input from terminal.
+     */
+    private static void runPrompt() throws IOException {
+        final var reader = new BufferedReader(new InputStreamReader(System.in), Repl.BUFFER_SIZE);
+        new Repl(reader, System.console() != null).run();
+        writeProfile();
+    }
 
-        // Stop if there was an error
-        if (hadError) return;
+    /**
+     * When profiling, write the folded stacks to {@code <output>.folded} and the per-node totals to {@code <output>.json}.
+     *
+     * @throws IOException Error writing the profile.
+     */
+    private static void writeProfile() throws IOException {
+        if (!(interpreter instanceof ProfilingInterpreter profiling)) return;
 
-        interpreter.interpret(statements);
+        final var profile = profiling.profile();
+        try (var writer = Files.newBufferedWriter(Path.of(profileOutput + ".folded"), StandardCharsets.UTF_8)) {
+            profile.writeFolded(writer);
+        }
+        try (var writer = Files.newBufferedWriter(Path.of(profileOutput + ".json"), StandardCharsets.UTF_8)) {
+            profile.writeJson(writer);
+        }
     }
 
     /**
-     * Print an error message to the console. Used during scanning.
+     * Scan the source, reporting errors to {@link #diagnostics} without printing them.
      *
-     * @param line    The current line of the file being scanned.
-     * @param message A message hint on what went wrong.
+     * @param source The Lox source code.
+     * @return The tokens, ending with EOF.
      */
-    static void error(final int line, final String message) {
-        report(line, "", message);
+    static List<Token> scan(final String source) {
+        final var scanEvent = new ScanEvent();
+        scanEvent.begin();
+        final var started = System.nanoTime();
+        final var tokens = new Scanner(source).scanTokens();
+        LoxMetrics.INSTANCE.scanned(System.nanoTime() - started, tokens.size());
+        scanEvent.sourceLength = source.length();
+        scanEvent.tokenCount = tokens.size();
+        scanEvent.commit();
+        return tokens;
     }
 
     /**
-     * Print to console.
+     * Parse, resolve and execute scanned source whose imports are relative to the working directory.
      *
-     * @param line    Line of error.
-     * @param where   Location of error.
-     * @param message User friendly message.
+     * @param tokens The tokens, ending with EOF.
      */
-    private static void report(final int line, final String where, final String message) {
-        System.err.printf("[line %d] Error %s: %s%n", line, where, message);
+    static void run(final List<Token> tokens) {
+        run(tokens, Path.of(""));
     }
 
     /**
-     * Print an error message to the console. Used during parsing.
+     * Parse scanned source, load the modules it imports, then resolve and execute it, recording parsing and execution
+     * as JFR events and in {@link LoxMetrics}, and print the errors from every phase.
      *
-     * @param token   The current token that caused the error.
-     * @param message A message hint on what went wrong.
+     * @param tokens    The tokens, ending with EOF.
+     * @param directory The directory its imports are relative to.
      */
-    static void error(final Token token, final String message) {
-        if (token.type() == TokenType.EOF) {
-            report(token.line(), " at end", message);
-        } else {
-            report(token.line(), " at '%s'".formatted(token.lexeme()), message);
+    static void run(final List<Token> tokens, final Path directory) {
+        final var metrics = LoxMetrics.INSTANCE;
+
+        final var parseEvent = new ParseEvent();
+        parseEvent.begin();
+        var started = System.nanoTime();
+        final var parser = new Parser(tokens, STACK_SAFE);
+        final var statements = parser.parse();
+        metrics.parsed(System.nanoTime() - started, parser.nodeCount());
+        parseEvent.tokenCount = tokens.size();
+        parseEvent.nodeCount = parser.nodeCount();
+        parseEvent.statementCount = statements.size();
+        parseEvent.commit();
+
+        // Loading modules, resolving and inferring types are left out of the parse timing.
+        if (!diagnostics.hadError()) {
+            modules.load(statements, directory, diagnostics);
         }
+        if (!diagnostics.hadError()) {
+            new Resolver(interpreter).resolve(statements);
+        }
+        if (!diagnostics.hadError()) {
+            new TypeInference().infer(statements);
+        }
+        reportErrors();
+
+        // Stop if there was a syntax or resolution error
+        if (diagnostics.hadError()) return;
+
+        final var executeEvent = new ExecuteEvent();
+        executeEvent.begin();
+        started = System.nanoTime();
+        final var runtimeErrors = metrics.getRuntimeErrorCount();
+        interpreter.interpret(statements);
+        metrics.executed(System.nanoTime() - started);
+        executeEvent.statementCount = statements.size();
+        executeEvent.runtimeError = metrics.getRuntimeErrorCount() != runtimeErrors;
+        executeEvent.commit();
+        reportErrors();
     }
 
     /**
-     * Print an error to console. Used during runtime interpreting.
-     *
-     * @param error The runtime error.
+     * Print the pending errors. Program output may be buffered, so it is written first to keep the two in order.
      */
-    static void runtimeError(final RuntimeError error) {
-        System.err.println(error.getMessage() + "\n[line " + error.token.line() + "]");
-        hadRuntimeError = true;
+    private static void reportErrors() {
+        if (diagnostics.pending().isEmpty()) return;
+        System.out.flush();
+        diagnostics.flush(System.err);
     }
 }
@@ -0,0 +1,20 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Anything that can be called from Lox: user functions and native functions.
+ */
+interface LoxCallable {
+    /**
+     * The number of arguments the callable expects.
+     */
+    int arity();
+
+    /**
+     * Invoke the callable.
+     *
+     * @param interpreter The interpreter making the call.
+     * @param arguments   The evaluated arguments, exactly {@link #arity()} of them.
+     * @return The result of the call.
+     */
+    Object call(Interpreter interpreter, Object[] arguments);
+}
@@ -0,0 +1,69 @@
+package org.craftinginterpreters.lox;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A Lox class. Calling it creates an instance and runs the initializer, if there is one.
+ */
+final class LoxClass implements LoxCallable {
+    final String name;
+    final LoxClass superclass;
+    private final Map<String, LoxFunction> methods;
+    // Methods found by walking the superclass chain, including misses. Classes never change once declared.
+    private final Map<String, LoxFunction> resolved = new HashMap<>();
+
+    /**
+     * The shape of every new instance.
+     */
+    final Shape shape = new Shape(this);
+
+    /**
+     * The number of fields instances of the class have had, so new instances allocate their field array up front.
+     */
+    int expectedFields = 0;
+
+    LoxClass(final String name, final LoxClass superclass, final Map<String, LoxFunction> methods) {
+        this.name = name;
+        this.superclass = superclass;
+        this.methods = methods;
+    }
+
+    /**
+     * Find a method declared by this class or inherited from a superclass.
+     *
+     * @param name The method name.
+     * @return The method, or null when there is none.
+     */
+    LoxFunction findMethod(final String name) {
+        if (resolved.containsKey(name)) return resolved.get(name);
+
+        LoxFunction method = null;
+        for (var klass = this; klass != null && method == null; klass = klass.superclass) {
+            method = klass.methods.get(name);
+        }
+        resolved.put(name, method);
+        return method;
+    }
+
+    @Override
+    public int arity() {
+        final var initializer = findMethod("init");
+        return initializer == null ? 0 : initializer.arity();
+    }
+
+    @Override
+    public Object call(final Interpreter interpreter, final Object[] arguments) {
+        final var instance = new LoxInstance(this);
+        final var initializer = findMethod("init");
+        if (initializer != null) {
+            new BoundMethod(instance, initializer).call(interpreter, arguments);
+        }
+        return instance;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,119 @@
+package org.craftinginterpreters.lox;
+
+import java.util.Arrays;
+
+/**
+ * A function declared in Lox, closing over the environment it was declared in.
+ * When the body declares no functions of its own, nothing can capture a call's environment, so environments are
+ * recycled through a small pool instead of being allocated for every call.
+ */
+final class LoxFunction implements LoxCallable {
+    /**
+     * What kind of declaration a function comes from. Methods keep {@code this} in the first slot of their frame,
+     * ahead of the parameters, and initializers always return {@code this}.
+     */
+    enum Kind {
+        FUNCTION, METHOD, INITIALIZER
+    }
+
+    private static final int POOL_SIZE = 16;
+
+    final Stmt.Function declaration;
+    final Kind kind;
+    private final Environment closure;
+    private final int frameSize;
+    private final Environment[] pool;
+    private int pooled = 0;
+
+    /**
+     * @param declaration  The function's declaration.
+     * @param closure      The environment the function was declared in.
+     * @param frameSize    The number of slots for the parameters and the body's top-level locals.
+     * @param poolFrames   Whether call environments may be reused once the call returns.
+     * @param kind         Whether the function is a method.
+     */
+    LoxFunction(final Stmt.Function declaration, final Environment closure, final int frameSize,
+                final boolean poolFrames, final Kind kind) {
+        this.declaration = declaration;
+        this.kind = kind;
+        this.closure = closure;
+        this.frameSize = frameSize;
+        this.pool = poolFrames ? new Environment[POOL_SIZE] : null;
+    }
+
+    @Override
+    public int arity() {
+        return declaration.params.size();
+    }
+
+    /**
+     * The frame slot of the first parameter, after {@code this} in methods.
+     */
+    int firstParameter() {
+        return kind == Kind.FUNCTION ? 0 : 1;
+    }
+
+    /**
+     * Call a plain function. Methods are called through a {@link BoundMethod}, which supplies {@code this}.
+     */
+    @Override
+    public Object call(final Interpreter interpreter, final Object[] arguments) {
+        final var frame = acquireFrame();
+        System.arraycopy(arguments, 0, frame.values, 0, arguments.length);
+        return invoke(interpreter, frame);
+    }
+
+    /**
+     * Run the body in a frame whose parameter slots are already filled. The frame is released afterwards.
+     * A tail call in the body hands back the next function and its frame, which run here in turn, so a chain of
+     * tail calls of any length uses one Java frame.
+     *
+     * @param interpreter The interpreter making the call.
+     * @param frame       A frame from {@link #acquireFrame()}.
+     * @return The returned value, or nil.
+     */
+    Object invoke(final Interpreter interpreter, Environment frame) {
+        var function = this;
+        for (; ; ) {
+            final TailCall next;
+            try {
+                interpreter.executeBlock(function.declaration.body, frame);
+                return function.kind == Kind.INITIALIZER ? frame.values[0] : null;
+            } catch (final Return returnValue) {
+                return function.kind == Kind.INITIALIZER ? frame.values[0] : returnValue.value;
+            } catch (final TailCall tailCall) {
+                next = tailCall;
+            } finally {
+                function.releaseFrame(frame);
+            }
+            function = next.function;
+            frame = next.frame;
+        }
+    }
+
+    /**
+     * A cleared environment for a new call, enclosed by the closure.
+     */
+    Environment acquireFrame() {
+        if (pooled > 0) {
+            final var frame = pool[--pooled];
+            pool[pooled] = null;
+            return frame;
+        }
+        return new Environment(closure, frameSize);
+    }
+
+    /**
+     * Hand a frame back once its call has finished.
+     */
+    void releaseFrame(final Environment frame) {
+        if (pool == null || pooled == POOL_SIZE) return;
+        Arrays.fill(frame.values, null);
+        pool[pooled++] = frame;
+    }
+
+    @Override
+    public String toString() {
+        return "<fn %s>".formatted(declaration.name.lexeme());
+    }
+}
@@ -0,0 +1,46 @@
+package org.craftinginterpreters.lox;
+
+import java.util.Arrays;
+
+/**
+ * An instance of a Lox class. Fields are held in an array laid out by the instance's {@link Shape}.
+ */
+final class LoxInstance {
+    Shape shape;
+    Object[] fields;
+
+    LoxInstance(final LoxClass klass) {
+        this.shape = klass.shape;
+        this.fields = new Object[klass.expectedFields];
+    }
+
+    /**
+     * Store a value in a field the current shape already has.
+     */
+    void set(final int slot, final Object value) {
+        fields[slot] = value;
+    }
+
+    /**
+     * Add a new field, moving to the next shape.
+     *
+     * @param next  The shape with the new field, as returned by {@link Shape#withField(String)}.
+     * @param value The field's value.
+     */
+    void add(final Shape next, final Object value) {
+        final var slot = next.size() - 1;
+        if (slot == fields.length) {
+            fields = Arrays.copyOf(fields, Math.max(4, slot * 2));
+        }
+        fields[slot] = value;
+        shape = next;
+        if (next.klass.expectedFields <= slot) {
+            next.klass.expectedFields = slot + 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return shape.klass.name + " instance";
+    }
+}
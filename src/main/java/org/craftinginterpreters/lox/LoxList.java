@@ -0,0 +1,103 @@
+package org.craftinginterpreters.lox;
+
+import java.util.Arrays;
+
+/**
+ * A growable Lox list. While every element is a number the elements are stored unboxed in a {@code double[]};
+ * the first element of any other type moves the list to an {@code Object[]} for good. Capacity doubles as the list
+ * grows, so appending is amortized constant time.
+ */
+final class LoxList {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private double[] numbers;
+    private Object[] objects = null;
+    private int size = 0;
+
+    /**
+     * @param capacity The number of elements to allocate space for up front.
+     */
+    LoxList(final int capacity) {
+        this.numbers = new double[Math.max(capacity, INITIAL_CAPACITY)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Whether the elements are still stored as unboxed numbers.
+     */
+    boolean isNumeric() {
+        return numbers != null;
+    }
+
+    /**
+     * @param index An index below {@link #size()}.
+     */
+    Object get(final int index) {
+        return numbers != null ? (Object) numbers[index] : objects[index];
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param memory The budget that pays for boxing the numbers if the list has to stop being numeric.
+     * @param token  The token responsible, used to report the error.
+     * @param index  An index below {@link #size()}.
+     * @param value  The new element.
+     */
+    void set(final MemoryBudget memory, final Token token, final int index, final Object value) {
+        if (numbers != null) {
+            if (value instanceof Double number) {
+                numbers[index] = number;
+                return;
+            }
+            generalize(memory, token);
+        }
+        objects[index] = value;
+    }
+
+    /**
+     * Add an element to the end of the list.
+     *
+     * @param memory The budget that pays for the new element.
+     * @param token  The token responsible, used to report the error.
+     * @param value  The new element.
+     */
+    void append(final MemoryBudget memory, final Token token, final Object value) {
+        memory.allocate(token, MemoryBudget.ELEMENT_BYTES);
+        if (numbers != null) {
+            if (value instanceof Double number) {
+                if (size == numbers.length) numbers = Arrays.copyOf(numbers, size * 2);
+                numbers[size++] = number;
+                return;
+            }
+            generalize(memory, token);
+        }
+        if (size == objects.length) objects = Arrays.copyOf(objects, size * 2);
+        objects[size++] = value;
+    }
+
+    /**
+     * Switch to general storage, boxing the numbers stored so far.
+     */
+    private void generalize(final MemoryBudget memory, final Token token) {
+        memory.allocate(token, MemoryBudget.NUMBER_BYTES * size);
+        objects = new Object[numbers.length];
+        for (var i = 0; i < size; i++) {
+            objects[i] = numbers[i];
+        }
+        numbers = null;
+    }
+
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder("[");
+        for (var i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(Interpreter.stringify(get(i)));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,180 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A Lox map: an open-addressed hash table with linear probing. Keys are equal exactly when
+ * {@link Interpreter#isEqual} says so.
+ * Each slot caches its key's hash, so probes compare hashes before keys, and growing the table never hashes a key
+ * again. Numbers that fit in an int are hashed from the int itself and only lightly spread, so runs of whole-number
+ * keys fill neighbouring slots without colliding; every other hash is fully mixed, since similar strings have
+ * similar hashes that would otherwise pile up in long probe runs.
+ * Removal shifts the rest of the probe run back instead of leaving tombstones, so lookups never
+ * slow down after many removals.
+ */
+final class LoxMap {
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Stands in for a nil key, since a null key marks an empty slot.
+     */
+    private static final Object NIL = new Object();
+
+    // Each entry's key and value sit side by side, at 2 * slot and 2 * slot + 1, so a probe touches one cache line.
+    private Object[] entries = new Object[2 * INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The value stored under the key, or nil when there is none.
+     */
+    Object get(final Object key) {
+        final var slot = find(key);
+        return slot < 0 ? null : entries[2 * slot + 1];
+    }
+
+    boolean containsKey(final Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Store a value under a key, replacing any value already there.
+     *
+     * @param memory The budget that pays for a new entry.
+     * @param token  The token responsible, used to report the error.
+     * @param key    The key.
+     * @param value  The value.
+     */
+    void put(final MemoryBudget memory, final Token token, final Object key, final Object value) {
+        final var stored = key == null ? NIL : key;
+        final var hash = hash(stored);
+        final var mask = hashes.length - 1;
+        var slot = hash & mask;
+        for (var candidate = entries[2 * slot]; candidate != null; candidate = entries[2 * slot]) {
+            if (candidate == stored || hashes[slot] == hash && matches(candidate, stored)) {
+                entries[2 * slot + 1] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        memory.allocate(token, MemoryBudget.ENTRY_BYTES);
+        entries[2 * slot] = stored;
+        entries[2 * slot + 1] = value;
+        hashes[slot] = hash;
+        // Keep the table at most three quarters full, so probe runs stay short.
+        if (++size * 4 > hashes.length * 3) grow();
+    }
+
+    /**
+     * @param key The key to remove.
+     * @return Whether the map held the key.
+     */
+    boolean remove(final Object key) {
+        var hole = find(key);
+        if (hole < 0) return false;
+
+        // Move later entries of the probe run back into the hole when their home slot allows it.
+        final var mask = hashes.length - 1;
+        var slot = hole;
+        for (; ; ) {
+            slot = (slot + 1) & mask;
+            if (entries[2 * slot] == null) break;
+            final var home = hashes[slot] & mask;
+            final var reachable = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (reachable) continue;
+            entries[2 * hole] = entries[2 * slot];
+            entries[2 * hole + 1] = entries[2 * slot + 1];
+            hashes[hole] = hashes[slot];
+            hole = slot;
+        }
+        entries[2 * hole] = null;
+        entries[2 * hole + 1] = null;
+        size--;
+        return true;
+    }
+
+    private int find(final Object key) {
+        final var stored = key == null ? NIL : key;
+        final var hash = hash(stored);
+        final var mask = hashes.length - 1;
+        var slot = hash & mask;
+        for (; ; ) {
+            final var candidate = entries[2 * slot];
+            if (candidate == null) return -1;
+            // The same key object - a string literal, say - is found without touching the hashes.
+            if (candidate == stored || hashes[slot] == hash && matches(candidate, stored)) return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        final var oldEntries = entries;
+        final var oldHashes = hashes;
+        entries = new Object[oldEntries.length * 2];
+        hashes = new int[oldHashes.length * 2];
+
+        final var mask = hashes.length - 1;
+        for (var i = 0; i < oldHashes.length; i++) {
+            if (oldEntries[2 * i] == null) continue;
+            var slot = oldHashes[i] & mask;
+            while (entries[2 * slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            entries[2 * slot] = oldEntries[2 * i];
+            entries[2 * slot + 1] = oldEntries[2 * i + 1];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    private static boolean matches(final Object stored, final Object key) {
+        if (stored instanceof Double a && key instanceof Double b) {
+            // The same as Double.equals, without the calls.
+            return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+        }
+        return Interpreter.isEqual(stored, key);
+    }
+
+    /**
+     * Spread a key's hash so that keys differing only in their high bits still land in different slots.
+     */
+    private static int hash(final Object key) {
+        if (key instanceof Double number) {
+            final var value = (double) number;
+            final var integer = (int) value;
+            // -0.0 is a different key from 0.0, as far as Lox equality is concerned.
+            if (integer == value && (integer != 0 || Double.doubleToRawLongBits(value) == 0)) {
+                return integer ^ (integer >>> 16);
+            }
+            return mix(Double.hashCode(value));
+        }
+        // Strings compute their hash once and keep it.
+        return mix(key.hashCode());
+    }
+
+    private static int mix(final int hash) {
+        var mixed = hash ^ (hash >>> 16);
+        mixed *= 0x85EBCA6B;
+        mixed ^= mixed >>> 13;
+        mixed *= 0xC2B2AE35;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    /**
+     * The entries in table order, which depends on the keys' hashes rather than the order they were added.
+     */
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder("{");
+        for (var i = 0; i < entries.length; i += 2) {
+            if (entries[i] == null) continue;
+            if (builder.length() > 1) builder.append(", ");
+            final var key = entries[i] == NIL ? null : entries[i];
+            builder.append(Interpreter.stringify(key)).append(": ").append(Interpreter.stringify(entries[i + 1]));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,143 @@
+package org.craftinginterpreters.lox;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and latency histograms for each phase of {@link Lox#run}.
+ * The single instance registers itself with the platform MBean server when first used.
+ */
+final class LoxMetrics implements LoxMetricsMXBean {
+    static final String OBJECT_NAME = "org.craftinginterpreters.lox:type=Metrics";
+    static final LoxMetrics INSTANCE = register(new LoxMetrics());
+
+    private final LongAdder scanCount = new LongAdder();
+    private final LongAdder tokenCount = new LongAdder();
+    private final LongAdder scanNanos = new LongAdder();
+    private final LatencyHistogram scanLatency = new LatencyHistogram();
+
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder nodeCount = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+
+    private final LongAdder executeCount = new LongAdder();
+    private final LongAdder executeNanos = new LongAdder();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+
+    private final LongAdder syntaxErrorCount = new LongAdder();
+    private final LongAdder runtimeErrorCount = new LongAdder();
+
+    private LoxMetrics() {
+    }
+
+    private static LoxMetrics register(final LoxMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (final JMException e) {
+            // Metrics are best effort; an unavailable MBean server must never stop a script from running.
+            System.err.println("Unable to register " + OBJECT_NAME + ": " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    void scanned(final long nanos, final int tokens) {
+        scanCount.increment();
+        tokenCount.add(tokens);
+        scanNanos.add(nanos);
+        scanLatency.record(nanos);
+    }
+
+    void parsed(final long nanos, final int nodes) {
+        parseCount.increment();
+        nodeCount.add(nodes);
+        parseNanos.add(nanos);
+        parseLatency.record(nanos);
+    }
+
+    void executed(final long nanos) {
+        executeCount.increment();
+        executeNanos.add(nanos);
+        executeLatency.record(nanos);
+    }
+
+    void syntaxError() {
+        syntaxErrorCount.increment();
+    }
+
+    void runtimeError() {
+        runtimeErrorCount.increment();
+    }
+
+    @Override
+    public long getScanCount() {
+        return scanCount.sum();
+    }
+
+    @Override
+    public long getTokenCount() {
+        return tokenCount.sum();
+    }
+
+    @Override
+    public long getScanNanos() {
+        return scanNanos.sum();
+    }
+
+    @Override
+    public long[] getScanLatencyHistogram() {
+        return scanLatency.snapshot();
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount.sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public long[] getParseLatencyHistogram() {
+        return parseLatency.snapshot();
+    }
+
+    @Override
+    public long getExecuteCount() {
+        return executeCount.sum();
+    }
+
+    @Override
+    public long getExecuteNanos() {
+        return executeNanos.sum();
+    }
+
+    @Override
+    public long[] getExecuteLatencyHistogram() {
+        return executeLatency.snapshot();
+    }
+
+    @Override
+    public long getSyntaxErrorCount() {
+        return syntaxErrorCount.sum();
+    }
+
+    @Override
+    public long getRuntimeErrorCount() {
+        return runtimeErrorCount.sum();
+    }
+
+    @Override
+    public long[] getLatencyBucketUpperBoundsMicros() {
+        return LatencyHistogram.upperBoundsMicros();
+    }
+}
@@ -0,0 +1,39 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Cumulative scan, parse and execute metrics for every script run by this JVM, published on the platform
+ * MBean server as {@value LoxMetrics#OBJECT_NAME}.
+ * Latency histograms are bucketed by powers of two microseconds, see {@link #getLatencyBucketUpperBoundsMicros()}.
+ */
+public interface LoxMetricsMXBean {
+    long getScanCount();
+
+    long getTokenCount();
+
+    long getScanNanos();
+
+    long[] getScanLatencyHistogram();
+
+    long getParseCount();
+
+    long getNodeCount();
+
+    long getParseNanos();
+
+    long[] getParseLatencyHistogram();
+
+    long getExecuteCount();
+
+    long getExecuteNanos();
+
+    long[] getExecuteLatencyHistogram();
+
+    long getSyntaxErrorCount();
+
+    long getRuntimeErrorCount();
+
+    /**
+     * The inclusive upper bound of each histogram bucket in microseconds. The last bucket is unbounded.
+     */
+    long[] getLatencyBucketUpperBoundsMicros();
+}
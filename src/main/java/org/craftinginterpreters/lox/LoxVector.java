@@ -0,0 +1,89 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A fixed-length vector of numbers. The arithmetic operators work on vectors element by element, through
+ * {@link VectorKernels}, and a number on either side is applied to every element.
+ */
+final class LoxVector {
+    final double[] values;
+
+    private LoxVector(final double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Allocate a vector of zeros.
+     *
+     * @param memory The budget that pays for the vector.
+     * @param token  The token responsible, used to report the error.
+     * @param length The number of elements.
+     */
+    static LoxVector allocate(final MemoryBudget memory, final Token token, final int length) {
+        memory.allocate(token, MemoryBudget.VECTOR_BYTES + MemoryBudget.ELEMENT_BYTES * length);
+        return new LoxVector(new double[length]);
+    }
+
+    /**
+     * Copy a list of numbers into a new vector.
+     *
+     * @param memory The budget that pays for the vector.
+     * @param token  The token responsible, used to report errors.
+     * @param list   The elements.
+     */
+    static LoxVector of(final MemoryBudget memory, final Token token, final LoxList list) {
+        final var vector = allocate(memory, token, list.size());
+        for (var i = 0; i < list.size(); i++) {
+            if (!(list.get(i) instanceof Double number)) {
+                throw new RuntimeError(token, "Vector elements must be numbers.");
+            }
+            vector.values[i] = number;
+        }
+        return vector;
+    }
+
+    /**
+     * Apply an arithmetic operator where at least one operand is a vector.
+     *
+     * @param memory   The budget that pays for the result.
+     * @param operator One of {@code +}, {@code -}, {@code *} or {@code /}.
+     * @param left     A vector or a number.
+     * @param right    A vector or a number.
+     * @return A new vector.
+     */
+    static LoxVector arithmetic(final MemoryBudget memory, final Token operator, final Object left, final Object right) {
+        final var kernels = VectorKernels.INSTANCE;
+        final var type = operator.type();
+        if (left instanceof LoxVector a && right instanceof LoxVector b) {
+            if (a.values.length != b.values.length) {
+                throw new RuntimeError(operator, "Vectors must have the same length.");
+            }
+            final var result = allocate(memory, operator, a.values.length);
+            kernels.apply(type, a.values, b.values, result.values);
+            return result;
+        }
+        if (left instanceof LoxVector a && right instanceof Double b) {
+            if (type == TokenType.SLASH && b == 0) {
+                throw new RuntimeError(operator, "Cannot divide by zero.");
+            }
+            final var result = allocate(memory, operator, a.values.length);
+            kernels.apply(type, a.values, b, result.values);
+            return result;
+        }
+        if (left instanceof Double a && right instanceof LoxVector b) {
+            final var result = allocate(memory, operator, b.values.length);
+            kernels.apply(type, a, b.values, result.values);
+            return result;
+        }
+        throw new RuntimeError(operator, "Operands must be vectors or numbers.");
+    }
+
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder("vector[");
+        for (var i = 0; i < values.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(Interpreter.stringify(values[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
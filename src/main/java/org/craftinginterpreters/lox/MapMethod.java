@@ -0,0 +1,40 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A map's {@code has} or {@code remove} method, read off the map as a value.
+ */
+final class MapMethod implements LoxCallable {
+    enum Kind {
+        HAS, REMOVE
+    }
+
+    private final LoxMap map;
+    private final Kind kind;
+
+    /**
+     * @param map  The map the method works on.
+     * @param kind Which method it is.
+     */
+    MapMethod(final LoxMap map, final Kind kind) {
+        this.map = map;
+        this.kind = kind;
+    }
+
+    @Override
+    public int arity() {
+        return 1;
+    }
+
+    @Override
+    public Object call(final Interpreter interpreter, final Object[] arguments) {
+        return switch (kind) {
+            case HAS -> map.containsKey(arguments[0]);
+            case REMOVE -> map.remove(arguments[0]);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
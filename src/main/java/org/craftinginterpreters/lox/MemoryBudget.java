@@ -0,0 +1,111 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Tracks the bytes allocated for Lox values by a single execution context (one {@link Interpreter}).
+ * Sizes are estimates of the JVM footprint of each value rather than exact measurements, which keeps
+ * accounting down to an addition and a comparison per allocation.
+ * Values that become garbage are never credited back, so the limit is a quota on the total allocated by one
+ * top-level run, not on live memory; the interpreter resets it before each script, REPL entry or watched run.
+ */
+final class MemoryBudget {
+    /**
+     * A budget that can never be exceeded.
+     */
+    static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * Object header plus the double payload of a boxed {@link Double}.
+     */
+    static final long NUMBER_BYTES = 16;
+
+    /**
+     * Object header and fields of a {@link LoxInstance}, excluding its field array.
+     */
+    static final long INSTANCE_BYTES = 24;
+
+    /**
+     * One reference in an instance's field array.
+     */
+    static final long FIELD_BYTES = 8;
+
+    /**
+     * Object headers and fields of a {@link LoxList} and its backing array, excluding the elements.
+     */
+    static final long LIST_BYTES = 40;
+
+    /**
+     * One element of a list's or vector's backing array, a double or a reference.
+     */
+    static final long ELEMENT_BYTES = 8;
+
+    /**
+     * Object headers and fields of a {@link LoxVector} and its backing array, excluding the elements.
+     */
+    static final long VECTOR_BYTES = 32;
+
+    /**
+     * Object headers and fields of a {@link LoxMap} and its three backing arrays, excluding the entries.
+     */
+    static final long MAP_BYTES = 64;
+
+    /**
+     * One entry of a map's table: a cached hash, a key reference and a value reference.
+     */
+    static final long ENTRY_BYTES = 20;
+
+    /**
+     * Object headers and fields of a {@link String} and its backing array, excluding the characters.
+     */
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final long limit;
+    private long allocated = 0;
+
+    MemoryBudget(final long limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Memory limit must be positive: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Charge the estimated size of a string of the given length.
+     *
+     * @param token  The token responsible for the allocation, used to report the error.
+     * @param length The number of characters in the string.
+     */
+    void allocateString(final Token token, final long length) {
+        allocate(token, STRING_OVERHEAD_BYTES + 2L * length);
+    }
+
+    /**
+     * Charge the given number of bytes against the budget.
+     *
+     * @param token The token responsible for the allocation, used to report the error.
+     * @param bytes The estimated size of the new value.
+     */
+    void allocate(final Token token, final long bytes) {
+        allocated += bytes;
+        if (allocated > limit) {
+            throw new RuntimeError(token, "Memory limit of %d bytes exceeded.".formatted(limit));
+        }
+    }
+
+    /**
+     * Start a new run with nothing allocated.
+     */
+    void reset() {
+        allocated = 0;
+    }
+
+    /**
+     * The total number of bytes allocated since the last reset.
+     */
+    long allocated() {
+        return allocated;
+    }
+
+    long limit() {
+        return limit;
+    }
+}
@@ -0,0 +1,16 @@
+package org.craftinginterpreters.lox;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A source file loaded by an {@code import}, scanned and parsed once and shared by every run that imports it while
+ * its text stays the same.
+ *
+ * @param path        The real path of the file.
+ * @param digest      A digest of the file's contents, identifying the version that was parsed.
+ * @param statements  The top-level declarations that have no syntax errors.
+ * @param diagnostics The scanner and syntax errors in the file.
+ */
+record Module(Path path, byte[] digest, List<Stmt> statements, List<Diagnostics.Diagnostic> diagnostics) {
+}
@@ -0,0 +1,162 @@
+package org.craftinginterpreters.lox;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the modules a program imports, and the modules those import in turn, and links each import to its module.
+ * Modules are cached for the life of the loader by their real path and a digest of their contents: loading one again
+ * reads the file, and only scans and parses it again if the digest has changed. The cached syntax trees are shared by
+ * every run that imports them, as the trees the watcher keeps are, and are resolved again by each run.
+ * Each module is read on the common fork-join pool, which has a worker per spare processor, and the modules it imports
+ * are started as soon as it is parsed, so modules that do not depend on each other are read and parsed in parallel.
+ */
+final class ModuleLoader {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final boolean stackSafe;
+    private final Map<Path, Module> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    /**
+     * @param stackSafe Parse expressions with explicit heap stacks rather than recursive descent.
+     */
+    ModuleLoader(final boolean stackSafe) {
+        this.stackSafe = stackSafe;
+    }
+
+    /**
+     * Load every module a program imports, directly or through other modules, and link each import to its module.
+     * An import whose file cannot be read is left unlinked, for the resolver to report.
+     *
+     * @param statements  The top-level declarations of the program.
+     * @param directory   The directory the program's imports are relative to.
+     * @param diagnostics Where to report the scanner and syntax errors in the modules.
+     */
+    void load(final List<Stmt> statements, final Path directory, final Diagnostics diagnostics) {
+        final var loading = new ConcurrentHashMap<Path, CompletableFuture<Module>>();
+        for (final var imported : imports(statements)) {
+            final var target = target(directory, imported);
+            if (target != null) start(target, loading);
+        }
+
+        // Each module starts loading its imports before it counts as loaded, so once every module started so far has
+        // loaded and no more have been started, there are none left.
+        for (var started = -1; started != loading.size(); ) {
+            started = loading.size();
+            CompletableFuture.allOf(loading.values().toArray(CompletableFuture[]::new)).join();
+        }
+
+        link(statements, directory, loading, new HashSet<>(), diagnostics);
+    }
+
+    /**
+     * How many times a file has been scanned and parsed, rather than taken from the cache.
+     */
+    int parsedModules() {
+        return parsed.get();
+    }
+
+    private void start(final Path file, final Map<Path, CompletableFuture<Module>> loading) {
+        final var future = new CompletableFuture<Module>();
+        if (loading.putIfAbsent(file, future) != null) return;
+
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                final var module = read(file);
+                for (final var imported : imports(module.statements())) {
+                    final var target = target(file.getParent(), imported);
+                    if (target != null) start(target, loading);
+                }
+                future.complete(module);
+            } catch (final IOException e) {
+                future.complete(null);
+            } catch (final Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private Module read(final Path file) throws IOException {
+        final var path = file.toRealPath();
+        final var bytes = Files.readAllBytes(path);
+        final var digest = digest(bytes);
+        final var cached = cache.get(path);
+        if (cached != null && Arrays.equals(cached.digest(), digest)) return cached;
+
+        final var diagnostics = new Diagnostics();
+        final var tokens = new Scanner(new String(bytes, Charset.defaultCharset()), diagnostics).scanTokens();
+        final var statements = new Parser(tokens, stackSafe, true, diagnostics).parse();
+        final var module = new Module(path, digest, statements, List.copyOf(diagnostics.pending()));
+        parsed.incrementAndGet();
+        cache.put(path, module);
+        return module;
+    }
+
+    /**
+     * Link the imports of a program or module, then those of each module it imports that has not been linked yet,
+     * reporting each module's errors as it is reached so they come out in the same order every time.
+     */
+    private static void link(final List<Stmt> statements, final Path directory,
+                             final Map<Path, CompletableFuture<Module>> loading, final Set<Path> linked,
+                             final Diagnostics diagnostics) {
+        for (final var imported : imports(statements)) {
+            final var target = target(directory, imported);
+            imported.module = target == null ? null : loading.get(target).join();
+            if (imported.module == null || !linked.add(target)) continue;
+
+            final var module = imported.module;
+            final var errors = new ArrayList<Diagnostics.Diagnostic>(module.diagnostics().size());
+            for (final var error : module.diagnostics()) {
+                errors.add(new Diagnostics.Diagnostic(error.kind(), error.line(),
+                        " in " + module.path() + error.where(), error.message()));
+            }
+            diagnostics.addAll(errors);
+            link(module.statements(), target.getParent(), loading, linked, diagnostics);
+        }
+    }
+
+    private static List<Stmt.Import> imports(final List<Stmt> statements) {
+        final var imports = new ArrayList<Stmt.Import>();
+        for (final var statement : statements) {
+            if (statement instanceof Stmt.Import imported) imports.add(imported);
+        }
+        return imports;
+    }
+
+    /**
+     * The file an import names, or null if it names no valid path.
+     */
+    private static Path target(final Path directory, final Stmt.Import imported) {
+        if (!(imported.path.literal() instanceof String path)) return null;
+        try {
+            return directory.resolve(path).toAbsolutePath().normalize();
+        } catch (final InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static byte[] digest(final byte[] bytes) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytes);
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support it.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.craftinginterpreters.lox;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one call to {@link Parser#parse()}.
+ */
+@Name("org.craftinginterpreters.lox.Parse")
+@Label("Lox Parse")
+@Category("Lox")
+@Description("Tokens parsed into a syntax tree")
+final class ParseEvent extends Event {
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Statement Count")
+    int statementCount;
+}
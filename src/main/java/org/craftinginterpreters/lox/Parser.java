@@ -1,48 +1,362 @@
 package org.craftinginterpreters.lox;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 import static org.craftinginterpreters.lox.TokenType.*;
 
 public class Parser {
+    /**
+     * Unwinds the parser from a syntax error. The error has already been reported, so no stack trace is captured.
+     */
     private static class ParserError extends RuntimeException {
+        ParserError() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * An operator waiting on the stack-safe parser's operator stack: a binary or prefix operator, or an open '('.
+     */
+    private record PendingOperator(Token token, boolean prefix) {
     }
 
+    private static final int MAX_ARGUMENTS = 255;
+
     private final List<Token> tokens;
+    private final boolean stackSafe;
+    private final Interner interner;
+    private final Diagnostics diagnostics;
     private int current = 0;
+    private int nodeCount = 0;
 
     Parser(final List<Token> tokens) {
+        this(tokens, false);
+    }
+
+    /**
+     * @param tokens    The tokens to parse.
+     * @param stackSafe Parse expressions with explicit heap stacks rather than recursive descent, so arbitrarily
+     *                  deep nesting cannot overflow the Java stack. Both modes build identical trees.
+     */
+    Parser(final List<Token> tokens, final boolean stackSafe) {
+        this(tokens, stackSafe, true);
+    }
+
+    /**
+     * @param tokens    The tokens to parse.
+     * @param stackSafe Parse expressions with explicit heap stacks rather than recursive descent.
+     * @param interning Share structurally identical side-effect-free subtrees through an {@link Interner}, rather
+     *                  than building a separate node for every occurrence.
+     */
+    Parser(final List<Token> tokens, final boolean stackSafe, final boolean interning) {
+        this(tokens, stackSafe, interning, Lox.diagnostics);
+    }
+
+    /**
+     * @param tokens      The tokens to parse.
+     * @param stackSafe   Parse expressions with explicit heap stacks rather than recursive descent.
+     * @param interning   Share structurally identical side-effect-free subtrees.
+     * @param diagnostics Where to report syntax errors.
+     */
+    Parser(final List<Token> tokens, final boolean stackSafe, final boolean interning,
+           final Diagnostics diagnostics) {
         this.tokens = tokens;
+        this.diagnostics = diagnostics;
+        this.stackSafe = stackSafe;
+        // A tree has at most about as many nodes as there are tokens.
+        this.interner = interning ? new Interner(tokens.size()) : null;
     }
 
+    /**
+     * Parse the whole program. After a syntax error the parser skips to the start of the next statement and carries
+     * on, so one pass reports every error; the statements that failed are left out.
+     */
     List<Stmt> parse() {
         final var statements = new ArrayList<Stmt>();
         while (!isAtEnd()) {
-            statements.add(statement());
+            final var declaration = declaration();
+            if (declaration != null) statements.add(declaration);
         }
         return statements;
     }
 
+    /**
+     * Parse the next declaration, recovering from a syntax error in it as {@link #parse()} does.
+     * Unlike the declarations {@link #parse()} builds, it shares no nodes with those parsed before it.
+     *
+     * @return The declaration, or null if it had a syntax error.
+     */
+    Stmt parseDeclaration() {
+        if (interner != null) interner.isolate();
+        return declaration();
+    }
+
+    /**
+     * The index of the next token to parse.
+     */
+    int position() {
+        return current;
+    }
+
+    /**
+     * The number of distinct syntax tree nodes built so far. A node shared by several occurrences counts once.
+     */
+    int nodeCount() {
+        return nodeCount;
+    }
+
     private Expr expression() {
-        return equality();
+        return assignment();
+    }
+
+    /**
+     * @return The declaration or statement, or null if it had a syntax error.
+     */
+    private Stmt declaration() {
+        try {
+            if (match(CLASS)) return classDeclaration();
+            if (match(FUN)) return function("function");
+            if (match(IMPORT)) return importDeclaration();
+            if (match(VAR)) return varDeclaration();
+            return statement();
+        } catch (final ParserError error) {
+            synchronize();
+            return null;
+        }
+    }
+
+    private Stmt classDeclaration() {
+        final var name = consume(IDENTIFIER, "Expect class name.");
+
+        Expr.Variable superclass = null;
+        if (match(LESS)) {
+            consume(IDENTIFIER, "Expect superclass name.");
+            superclass = node(new Expr.Variable(previous()));
+        }
+
+        consume(LEFT_BRACE, "Expect '{' before class body.");
+        final var methods = new ArrayList<Stmt.Function>();
+        while (!check(RIGHT_BRACE) && !isAtEnd()) {
+            methods.add(function("method"));
+        }
+        consume(RIGHT_BRACE, "Expect '}' after class body.");
+        return node(new Stmt.Class(name, superclass, methods));
+    }
+
+    /**
+     * @param kind What is being declared, for error messages.
+     */
+    private Stmt.Function function(final String kind) {
+        final var name = consume(IDENTIFIER, "Expect " + kind + " name.");
+        consume(LEFT_PAREN, "Expect '(' after " + kind + " name.");
+        final var parameters = new ArrayList<Token>();
+        if (!check(RIGHT_PAREN)) {
+            do {
+                if (parameters.size() >= MAX_ARGUMENTS) {
+                    error(peek(), "Can't have more than " + MAX_ARGUMENTS + " parameters.");
+                }
+                parameters.add(consume(IDENTIFIER, "Expect parameter name."));
+            } while (match(COMMA));
+        }
+        consume(RIGHT_PAREN, "Expect ')' after parameters.");
+
+        consume(LEFT_BRACE, "Expect '{' before " + kind + " body.");
+        final var body = block();
+        return node(new Stmt.Function(name, parameters, body));
+    }
+
+    private Stmt importDeclaration() {
+        final var keyword = previous();
+        final var path = consume(STRING, "Expect module path after 'import'.");
+        consume(SEMICOLON, "Expect ';' after module path.");
+        return node(new Stmt.Import(keyword, path));
+    }
+
+    private Stmt varDeclaration() {
+        final var name = consume(IDENTIFIER, "Expect variable name.");
+
+        Expr initializer = null;
+        if (match(EQUAL)) {
+            initializer = expression();
+        }
+
+        consume(SEMICOLON, "Expect ';' after variable declaration.");
+        return node(new Stmt.Var(name, initializer));
     }
 
     private Stmt statement() {
+        if (match(FOR)) return forStatement();
+        if (match(IF)) return ifStatement();
         if (match(PRINT)) return printStatement();
+        if (match(RETURN)) return returnStatement();
+        if (match(WHILE)) return whileStatement();
+        if (match(LEFT_BRACE)) return node(new Stmt.Block(block()));
         return expressionStatement();
     }
 
+    /**
+     * A for loop has no node of its own. It is desugared into its initializer followed by a while loop whose body
+     * ends with the increment.
+     */
+    private Stmt forStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'for'.");
+
+        Stmt initializer;
+        if (match(SEMICOLON)) {
+            initializer = null;
+        } else if (match(VAR)) {
+            initializer = varDeclaration();
+        } else {
+            initializer = expressionStatement();
+        }
+
+        Expr condition = null;
+        if (!check(SEMICOLON)) {
+            condition = expression();
+        }
+        consume(SEMICOLON, "Expect ';' after loop condition.");
+        // The increment runs in a block of its own, one scope deeper than the condition.
+        barrier();
+
+        Expr increment = null;
+        if (!check(RIGHT_PAREN)) {
+            increment = expression();
+        }
+        consume(RIGHT_PAREN, "Expect ')' after for clauses.");
+
+        var body = statement();
+        if (increment != null) {
+            body = node(new Stmt.Block(List.of(body, node(new Stmt.Expression(increment)))));
+        }
+        if (condition == null) {
+            condition = node(new Expr.Literal(true));
+        }
+        body = node(new Stmt.While(condition, body));
+        if (initializer != null) {
+            body = node(new Stmt.Block(List.of(initializer, body)));
+        }
+        return body;
+    }
+
+    private Stmt ifStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'if'.");
+        final var condition = expression();
+        consume(RIGHT_PAREN, "Expect ')' after if condition.");
+
+        final var thenBranch = statement();
+        Stmt elseBranch = null;
+        if (match(ELSE)) {
+            elseBranch = statement();
+        }
+        return node(new Stmt.If(condition, thenBranch, elseBranch));
+    }
+
+    private Stmt whileStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'while'.");
+        final var condition = expression();
+        consume(RIGHT_PAREN, "Expect ')' after condition.");
+        final var body = statement();
+        return node(new Stmt.While(condition, body));
+    }
+
     private Stmt printStatement() {
         final var value = expression();
         consume(SEMICOLON, "Expect ';' after value");
-        return new Stmt.Print(value);
+        return node(new Stmt.Print(value));
+    }
+
+    private Stmt returnStatement() {
+        final var keyword = previous();
+        Expr value = null;
+        if (!check(SEMICOLON) && !isAtEnd()) {
+            value = expression();
+        }
+        consume(SEMICOLON, "Expect ';' after return value.");
+        return node(new Stmt.Return(keyword, value));
     }
 
     private Stmt expressionStatement() {
         final var expr = expression();
         consume(SEMICOLON, "Expect ';' after value");
-        return new Stmt.Expression(expr);
+        return node(new Stmt.Expression(expr));
+    }
+
+    private List<Stmt> block() {
+        // The block is a scope of its own, along with any parameters declared just before it.
+        barrier();
+        final var statements = new ArrayList<Stmt>();
+        while (!check(RIGHT_BRACE) && !isAtEnd()) {
+            final var declaration = declaration();
+            if (declaration != null) statements.add(declaration);
+        }
+
+        consume(RIGHT_BRACE, "Expect '}' after block.");
+        return statements;
+    }
+
+    /**
+     * An assignment is right associative, so {@code a = b = c} assigns c to b and then to a.
+     * The targets are collected in a loop and the assignments built from the right, which keeps long chains off
+     * the Java stack in either parsing mode.
+     */
+    private Expr assignment() {
+        final var operands = new ArrayList<Expr>();
+        final var equals = new ArrayList<Token>();
+        operands.add(operatorExpression());
+        while (match(EQUAL)) {
+            equals.add(previous());
+            operands.add(operatorExpression());
+        }
+
+        var expr = operands.get(operands.size() - 1);
+        for (var i = operands.size() - 2; i >= 0; i--) {
+            expr = assign(operands.get(i), equals.get(i), expr);
+        }
+        return expr;
+    }
+
+    /**
+     * Build the assignment of a value to a target, or report the target as invalid and keep it in place of the
+     * assignment.
+     */
+    private Expr assign(final Expr target, final Token equals, final Expr value) {
+        if (target instanceof Expr.Variable variable) {
+            return node(new Expr.Assign(variable.name, value));
+        } else if (target instanceof Expr.Get get) {
+            return node(new Expr.Set(get.object, get.name, value));
+        } else if (target instanceof Expr.Index index) {
+            return node(new Expr.IndexSet(index.object, index.bracket, index.index, value));
+        }
+        // Report without throwing, the parser isn't confused about where it is.
+        error(equals, "Invalid assignment target.");
+        return target;
+    }
+
+    private Expr operatorExpression() {
+        return stackSafe ? stackSafeExpression() : or();
+    }
+
+    private Expr or() {
+        var expr = and();
+        while (match(OR)) {
+            final var operator = previous();
+            final var right = and();
+            expr = node(new Expr.Logical(expr, operator, right));
+        }
+        return expr;
+    }
+
+    private Expr and() {
+        var expr = equality();
+        while (match(AND)) {
+            final var operator = previous();
+            final var right = equality();
+            expr = node(new Expr.Logical(expr, operator, right));
+        }
+        return expr;
     }
 
     private Expr equality() {
@@ -50,7 +364,7 @@ public class Parser {
         while (match(BANG_EQUAL, EQUAL_EQUAL)) {
             final var operator = previous();
             final var right = comparison();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = node(new Expr.Binary(expr, operator, right));
         }
         return expr;
     }
@@ -60,7 +374,7 @@ public class Parser {
         while (match(GREATER, GREATER_EQUAL, LESS, LESS_EQUAL)) {
             final var operator = previous();
             final var right = term();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = node(new Expr.Binary(expr, operator, right));
         }
         return expr;
     }
@@ -70,7 +384,7 @@ public class Parser {
         while (match(MINUS, PLUS)) {
             final var operator = previous();
             final var right = factor();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = node(new Expr.Binary(expr, operator, right));
         }
         return expr;
     }
@@ -80,7 +394,7 @@ public class Parser {
         while (match(SLASH, STAR)) {
             final var operator = previous();
             final var right = factor();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = node(new Expr.Binary(expr, operator, right));
         }
         return expr;
     }
@@ -89,29 +403,246 @@ public class Parser {
         if (match(BANG, MINUS)) {
             final var operator = previous();
             final var right = unary();
-            return new Expr.Unary(operator, right);
+            return node(new Expr.Unary(operator, right));
         }
-        return primary();
+        return calls(primary());
     }
 
-    private Expr primary() {
-        if (match(FALSE)) return new Expr.Literal(false);
-        if (match(TRUE)) return new Expr.Literal(true);
-        if (match(NIL)) return new Expr.Literal(null);
+    /**
+     * Apply any argument lists, property accesses and indexes following a primary expression, so {@code f(1)(2)}
+     * calls the result of {@code f(1)}, {@code a.b.c} reads c from a.b and {@code a[1][2]} indexes a[1].
+     */
+    private Expr calls(Expr expr) {
+        for (; ; ) {
+            if (match(LEFT_PAREN)) {
+                expr = finishCall(expr);
+            } else if (match(DOT)) {
+                final var name = consume(IDENTIFIER, "Expect property name after '.'.");
+                expr = node(new Expr.Get(expr, name));
+            } else if (match(LEFT_BRACKET)) {
+                final var bracket = previous();
+                final var index = expression();
+                consume(RIGHT_BRACKET, "Expect ']' after index.");
+                expr = node(new Expr.Index(expr, bracket, index));
+            } else {
+                return expr;
+            }
+        }
+    }
 
-        if (match(NUMBER, STRING)) {
-            return new Expr.Literal(previous().literal());
+    private Expr finishCall(final Expr callee) {
+        final var arguments = new ArrayList<Expr>();
+        if (!check(RIGHT_PAREN)) {
+            do {
+                if (arguments.size() >= MAX_ARGUMENTS) {
+                    error(peek(), "Can't have more than " + MAX_ARGUMENTS + " arguments.");
+                }
+                arguments.add(expression());
+            } while (match(COMMA));
         }
+        final var paren = consume(RIGHT_PAREN, "Expect ')' after arguments.");
+        return node(new Expr.Call(callee, paren, arguments));
+    }
 
+    private Expr primary() {
         if (match(LEFT_PAREN)) {
             final var expr = expression();
             consume(RIGHT_PAREN, "Expect ')' after expression.");
-            return new Expr.Grouping(expr);
+            return node(new Expr.Grouping(expr));
+        }
+        return atom();
+    }
+
+    /**
+     * A primary expression that is not a parenthesized group.
+     */
+    private Expr atom() {
+        if (match(FALSE)) return node(new Expr.Literal(false));
+        if (match(TRUE)) return node(new Expr.Literal(true));
+        if (match(NIL)) return node(new Expr.Literal(null));
+
+        if (match(NUMBER, STRING)) {
+            return node(new Expr.Literal(previous().literal()));
+        }
+
+        if (match(SUPER)) {
+            final var keyword = previous();
+            consume(DOT, "Expect '.' after 'super'.");
+            final var method = consume(IDENTIFIER, "Expect superclass method name.");
+            return node(new Expr.Super(keyword, method));
+        }
+
+        if (match(THIS)) return node(new Expr.This(previous()));
+
+        if (match(LEFT_BRACKET)) {
+            final var bracket = previous();
+            final var elements = new ArrayList<Expr>();
+            if (!check(RIGHT_BRACKET)) {
+                do {
+                    elements.add(expression());
+                } while (match(COMMA));
+            }
+            consume(RIGHT_BRACKET, "Expect ']' after list elements.");
+            return node(new Expr.ListLiteral(bracket, elements));
+        }
+
+        // A statement starting with '{' is a block, so map literals are only seen in expression position.
+        if (match(LEFT_BRACE)) {
+            final var brace = previous();
+            final var keys = new ArrayList<Expr>();
+            final var values = new ArrayList<Expr>();
+            if (!check(RIGHT_BRACE)) {
+                do {
+                    keys.add(expression());
+                    consume(COLON, "Expect ':' after map key.");
+                    values.add(expression());
+                } while (match(COMMA));
+            }
+            consume(RIGHT_BRACE, "Expect '}' after map entries.");
+            return node(new Expr.MapLiteral(brace, keys, values));
+        }
+
+        if (match(IDENTIFIER)) {
+            return node(new Expr.Variable(previous()));
         }
 
         throw error(peek(), "Expect expression");
     }
 
+    /**
+     * Parse an expression by operator precedence with explicit operand and operator stacks.
+     * Java stack usage is constant however deep the nesting, and the tree matches {@link #or()}: the
+     * logical, equality, comparison and term levels are left associative, factor is right associative, and prefix
+     * operators bind tighter than any binary operator. Calls bind tighter still; their arguments are parsed
+     * recursively, so only nesting through argument lists uses the Java stack.
+     * Inside parentheses '=' is a right associative operator looser than any other, as {@link #assignment()} makes it
+     * there; outside them it ends the expression and is left to the caller.
+     */
+    private Expr stackSafeExpression() {
+        final Deque<Expr> operands = new ArrayDeque<>();
+        final Deque<PendingOperator> operators = new ArrayDeque<>();
+        var openGroups = 0;
+
+        for (; ; ) {
+            // Operand position: any number of prefix operators and '(' followed by an atom.
+            for (; ; ) {
+                if (match(BANG, MINUS)) {
+                    operators.push(new PendingOperator(previous(), true));
+                } else if (match(LEFT_PAREN)) {
+                    operators.push(new PendingOperator(previous(), false));
+                    openGroups++;
+                } else {
+                    break;
+                }
+            }
+            operands.push(calls(atom()));
+            reducePrefixOperators(operands, operators);
+
+            // Operator position: close groups until a binary operator continues the expression or it ends.
+            for (; ; ) {
+                if (openGroups > 0 && match(EQUAL)) {
+                    while (isBinary(operators.peek()) && operators.peek().token().type() != EQUAL) {
+                        reduceBinary(operands, operators);
+                    }
+                    operators.push(new PendingOperator(previous(), false));
+                    break;
+                }
+
+                final var precedence = isAtEnd() ? 0 : precedence(peek().type());
+                if (precedence > 0) {
+                    while (!operators.isEmpty() && isBinary(operators.peek())) {
+                        final var top = precedence(operators.peek().token().type());
+                        if (top < precedence || (top == precedence && precedence == FACTOR_PRECEDENCE)) break;
+                        reduceBinary(operands, operators);
+                    }
+                    operators.push(new PendingOperator(advance(), false));
+                    break;
+                }
+
+                if (openGroups == 0) {
+                    while (!operators.isEmpty()) {
+                        reduceBinary(operands, operators);
+                    }
+                    return operands.pop();
+                }
+
+                consume(RIGHT_PAREN, "Expect ')' after expression.");
+                while (isBinary(operators.peek())) {
+                    reduceBinary(operands, operators);
+                }
+                operators.pop();
+                openGroups--;
+                operands.push(calls(node(new Expr.Grouping(operands.pop()))));
+                reducePrefixOperators(operands, operators);
+            }
+        }
+    }
+
+    private static final int FACTOR_PRECEDENCE = 6;
+
+    /**
+     * Binding power of a binary operator, or 0 when the token is not one.
+     */
+    private static int precedence(final TokenType type) {
+        return switch (type) {
+            case OR -> 1;
+            case AND -> 2;
+            case BANG_EQUAL, EQUAL_EQUAL -> 3;
+            case GREATER, GREATER_EQUAL, LESS, LESS_EQUAL -> 4;
+            case MINUS, PLUS -> 5;
+            case SLASH, STAR -> FACTOR_PRECEDENCE;
+            default -> 0;
+        };
+    }
+
+    private static boolean isBinary(final PendingOperator operator) {
+        return !operator.prefix() && operator.token().type() != LEFT_PAREN;
+    }
+
+    private void reduceBinary(final Deque<Expr> operands, final Deque<PendingOperator> operators) {
+        final var right = operands.pop();
+        final var left = operands.pop();
+        final var operator = operators.pop().token();
+        if (operator.type() == EQUAL) {
+            operands.push(assign(left, operator, right));
+        } else if (operator.type() == AND || operator.type() == OR) {
+            operands.push(node(new Expr.Logical(left, operator, right)));
+        } else {
+            operands.push(node(new Expr.Binary(left, operator, right)));
+        }
+    }
+
+    private void reducePrefixOperators(final Deque<Expr> operands, final Deque<PendingOperator> operators) {
+        while (!operators.isEmpty() && operators.peek().prefix()) {
+            operands.push(node(new Expr.Unary(operators.pop().token(), operands.pop())));
+        }
+    }
+
+    /**
+     * Count a node just built, or swap it for the equal node the interner already has.
+     * Every statement may declare a name, so finishing one raises an interning barrier.
+     *
+     * @param node The new node.
+     * @return The node to use: the new one, or the equal one built before.
+     */
+    private <T> T node(final T node) {
+        if (interner == null) {
+            nodeCount++;
+            return node;
+        }
+        if (node instanceof Stmt) barrier();
+        final var shared = interner.intern(node);
+        if (shared == node) nodeCount++;
+        return shared;
+    }
+
+    /**
+     * Stop variable reads parsed from here on sharing nodes with earlier ones, which may resolve to other slots.
+     */
+    private void barrier() {
+        if (interner != null) interner.barrier();
+    }
+
     /**
      * Checks if the current token has any of the given types.
      *
@@ -137,17 +668,18 @@ public class Parser {
      * @return The next token if valid.
      */
     private Token consume(final TokenType type, final String message) {
-        if (check(type)) return advance();
+        // Running out of tokens is forgiven, so a trailing ';' or ')' may be left off the end of the input.
+        if (check(type) || (isAtEnd() && (type == SEMICOLON || type == RIGHT_PAREN))) return advance();
         throw error(peek(), message);
     }
 
     /**
      * Check if the next token is of the given type.
      *
-     * @return Will return true if its match OR we're at the end of the expression.
+     * @return Will return true if its match, never at the end of the tokens.
      */
     private boolean check(final TokenType type) {
-        if (isAtEnd()) return true;
+        if (isAtEnd()) return false;
         return peek().type() == type;
     }
 
@@ -181,26 +713,26 @@ public class Parser {
     }
 
     /**
-     * Log the current error to terminal and return a custom error that can either be thrown or ignored.
+     * Report the error and return a custom error that can either be thrown or ignored.
      *
      * @param token   The token which caused the error.
      * @param message A custom message to be logged.
      * @return A new ParserError.
      */
     private ParserError error(final Token token, final String message) {
-        Lox.error(token, message);
+        diagnostics.error(token, message);
         return new ParserError();
     }
 
     /**
-     * Reset the current tree and find next statement.
+     * Discard tokens until the start of the next statement: just after a semicolon, or at a keyword that begins one.
      */
     private void synchronize() {
         advance();
         while (!isAtEnd()) {
             if (previous().type() == SEMICOLON) return;
             switch (peek().type()) {
-                case CLASS, FOR, FUN, IF, PRINT, RETURN, VAR, WHILE -> {
+                case CLASS, FOR, FUN, IF, IMPORT, PRINT, RETURN, VAR, WHILE -> {
                     return;
                 }
                 default -> advance();
@@ -0,0 +1,335 @@
+package org.craftinginterpreters.lox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-node execution statistics gathered by {@link ProfilingInterpreter}.
+ * Nodes are keyed by their kind and source line. Timings are kept both as a call tree, for folded-stack
+ * flame graphs, and as flat totals, for the JSON report.
+ */
+final class Profile {
+    /**
+     * A profiled location in the source: the AST node kind and the line it starts on.
+     */
+    record Site(String kind, int line) {
+        @Override
+        public String toString() {
+            return kind + "@" + line;
+        }
+    }
+
+    /**
+     * Flat statistics for every execution of a site, regardless of where it was reached from.
+     */
+    static final class Totals {
+        long hits = 0;
+        long inclusiveNanos = 0;
+        long exclusiveNanos = 0;
+        private int active = 0;
+    }
+
+    private static final class CallTree {
+        final Site site;
+        final Map<Site, CallTree> children = new LinkedHashMap<>();
+        long hits = 0;
+        long inclusiveNanos = 0;
+        long childNanos = 0;
+
+        CallTree(final Site site) {
+            this.site = site;
+        }
+    }
+
+    private final CallTree root = new CallTree(new Site("root", 0));
+    private final Map<Site, Totals> totals = new LinkedHashMap<>();
+    // Kept here rather than in a runtime field because every node would need one, and the plain interpreter would pay
+    // for it in every tree.
+    private final Map<Object, Site> sites = new IdentityHashMap<>();
+    private final Map<Expr.Logical, BranchProfile> branches = new LinkedHashMap<>();
+
+    // The active path through the call tree, one entry per node currently being executed.
+    private CallTree[] path = new CallTree[64];
+    private long[] starts = new long[64];
+    private long[] childNanos = new long[64];
+    private int depth = 0;
+
+    /**
+     * Record the start of a statement or expression.
+     *
+     * @param node The node about to be executed.
+     */
+    void enter(final Object node) {
+        final var parent = depth == 0 ? root : path[depth - 1];
+        // A node without tokens of its own, such as a literal, may be shared by several lines, so it is attributed
+        // to whichever line it is reached from.
+        final var own = sites.computeIfAbsent(node, Profile::siteOf);
+        final var site = own.line() < 0 ? new Site(own.kind(), parent.site.line()) : own;
+        final var tree = parent.children.computeIfAbsent(site, CallTree::new);
+        tree.hits++;
+
+        final var total = totals.computeIfAbsent(site, key -> new Totals());
+        total.hits++;
+        total.active++;
+
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            starts = Arrays.copyOf(starts, depth * 2);
+            childNanos = Arrays.copyOf(childNanos, depth * 2);
+        }
+        path[depth] = tree;
+        childNanos[depth] = 0;
+        starts[depth] = System.nanoTime();
+        depth++;
+    }
+
+    /**
+     * Record the end of the most recently entered node.
+     */
+    void exit() {
+        final var elapsed = System.nanoTime() - starts[--depth];
+        final var tree = path[depth];
+        tree.inclusiveNanos += elapsed;
+        if (depth > 0) {
+            path[depth - 1].childNanos += elapsed;
+            childNanos[depth - 1] += elapsed;
+        }
+
+        final var total = totals.get(tree.site);
+        total.exclusiveNanos += elapsed - childNanos[depth];
+        // Only the outermost activation of a site counts towards its inclusive time, so recursion isn't double counted.
+        if (--total.active == 0) {
+            total.inclusiveNanos += elapsed;
+        }
+    }
+
+    /**
+     * Include a logical operator's branch profile in the report.
+     *
+     * @param expr    The logical expression.
+     * @param profile Its branch profile, which goes on being updated as the program runs.
+     */
+    void branch(final Expr.Logical expr, final BranchProfile profile) {
+        branches.put(expr, profile);
+    }
+
+    /**
+     * The flat statistics recorded for each site.
+     */
+    Map<Site, Totals> totals() {
+        return totals;
+    }
+
+    /**
+     * Write the call tree in the folded-stack format consumed by flame graph tools:
+     * one line per distinct stack, frames separated by ';', followed by the exclusive nanoseconds.
+     *
+     * @param out Where to write.
+     * @throws IOException Error writing output.
+     */
+    void writeFolded(final Appendable out) throws IOException {
+        for (final var child : root.children.values()) {
+            writeFolded(out, child, new StringBuilder());
+        }
+    }
+
+    private void writeFolded(final Appendable out, final CallTree tree, final StringBuilder stack) throws IOException {
+        final var length = stack.length();
+        if (length > 0) stack.append(';');
+        stack.append(tree.site);
+
+        out.append(stack).append(' ').append(Long.toString(tree.inclusiveNanos - tree.childNanos)).append('\n');
+        for (final var child : tree.children.values()) {
+            writeFolded(out, child, stack);
+        }
+
+        stack.setLength(length);
+    }
+
+    /**
+     * Write the flat statistics as a JSON document, hottest site (by exclusive time) first, followed by how often
+     * each operand decided every logical operator that ran.
+     *
+     * @param out Where to write.
+     * @throws IOException Error writing output.
+     */
+    void writeJson(final Appendable out) throws IOException {
+        final var entries = new ArrayList<>(totals.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<Site, Totals> entry) -> entry.getValue().exclusiveNanos).reversed());
+
+        out.append("{\"nodes\":[");
+        for (var i = 0; i < entries.size(); i++) {
+            final var site = entries.get(i).getKey();
+            final var total = entries.get(i).getValue();
+            if (i > 0) out.append(',');
+            out.append("\n  {\"kind\":\"%s\",\"line\":%d,\"hits\":%d,\"inclusiveNanos\":%d,\"exclusiveNanos\":%d}".formatted(
+                    site.kind(), site.line(), total.hits, total.inclusiveNanos, total.exclusiveNanos));
+        }
+        out.append("\n],\"branches\":[");
+        var first = true;
+        for (final var branch : branches.entrySet()) {
+            final var profile = branch.getValue();
+            if (profile.leftDecided + profile.rightDecided == 0) continue;
+            if (!first) out.append(',');
+            first = false;
+            out.append("\n  {\"operator\":\"%s\",\"line\":%d,\"leftDecided\":%d,\"rightDecided\":%d}".formatted(
+                    branch.getKey().operator.lexeme(), branch.getKey().operator.line(),
+                    profile.leftDecided, profile.rightDecided));
+        }
+        out.append("\n]}\n");
+    }
+
+    private static Site siteOf(final Object node) {
+        final int line = node instanceof Stmt stmt ? stmt.accept(LINES) : ((Expr) node).accept(LINES);
+        return new Site(node.getClass().getSimpleName(), line);
+    }
+
+    private static final Lines LINES = new Lines();
+
+    /**
+     * Finds the first source line of a node from the tokens in its subtree, or -1 when it has none.
+     */
+    private static final class Lines implements Expr.Visitor<Integer>, Stmt.Visitor<Integer> {
+        @Override
+        public Integer visitAssignExpr(final Expr.Assign expr) {
+            return expr.name.line();
+        }
+
+        @Override
+        public Integer visitBinaryExpr(final Expr.Binary expr) {
+            final int left = expr.left.accept(this);
+            return left < 0 ? expr.operator.line() : left;
+        }
+
+        @Override
+        public Integer visitCallExpr(final Expr.Call expr) {
+            final int callee = expr.callee.accept(this);
+            return callee < 0 ? expr.paren.line() : callee;
+        }
+
+        @Override
+        public Integer visitGetExpr(final Expr.Get expr) {
+            final int object = expr.object.accept(this);
+            return object < 0 ? expr.name.line() : object;
+        }
+
+        @Override
+        public Integer visitGroupingExpr(final Expr.Grouping expr) {
+            return expr.expression.accept(this);
+        }
+
+        @Override
+        public Integer visitIndexExpr(final Expr.Index expr) {
+            final int object = expr.object.accept(this);
+            return object < 0 ? expr.bracket.line() : object;
+        }
+
+        @Override
+        public Integer visitIndexSetExpr(final Expr.IndexSet expr) {
+            final int object = expr.object.accept(this);
+            return object < 0 ? expr.bracket.line() : object;
+        }
+
+        @Override
+        public Integer visitListLiteralExpr(final Expr.ListLiteral expr) {
+            return expr.bracket.line();
+        }
+
+        @Override
+        public Integer visitLiteralExpr(final Expr.Literal expr) {
+            return -1;
+        }
+
+        @Override
+        public Integer visitLogicalExpr(final Expr.Logical expr) {
+            final int left = expr.left.accept(this);
+            return left < 0 ? expr.operator.line() : left;
+        }
+
+        @Override
+        public Integer visitMapLiteralExpr(final Expr.MapLiteral expr) {
+            return expr.brace.line();
+        }
+
+        @Override
+        public Integer visitSetExpr(final Expr.Set expr) {
+            final int object = expr.object.accept(this);
+            return object < 0 ? expr.name.line() : object;
+        }
+
+        @Override
+        public Integer visitSuperExpr(final Expr.Super expr) {
+            return expr.keyword.line();
+        }
+
+        @Override
+        public Integer visitThisExpr(final Expr.This expr) {
+            return expr.keyword.line();
+        }
+
+        @Override
+        public Integer visitUnaryExpr(final Expr.Unary expr) {
+            return expr.operator.line();
+        }
+
+        @Override
+        public Integer visitVariableExpr(final Expr.Variable expr) {
+            return expr.name.line();
+        }
+
+        @Override
+        public Integer visitBlockStmt(final Stmt.Block stmt) {
+            return stmt.statements.isEmpty() ? -1 : stmt.statements.get(0).accept(this);
+        }
+
+        @Override
+        public Integer visitClassStmt(final Stmt.Class stmt) {
+            return stmt.name.line();
+        }
+
+        @Override
+        public Integer visitExpressionStmt(final Stmt.Expression stmt) {
+            return stmt.expression.accept(this);
+        }
+
+        @Override
+        public Integer visitFunctionStmt(final Stmt.Function stmt) {
+            return stmt.name.line();
+        }
+
+        @Override
+        public Integer visitIfStmt(final Stmt.If stmt) {
+            return stmt.condition.accept(this);
+        }
+
+        @Override
+        public Integer visitImportStmt(final Stmt.Import stmt) {
+            return stmt.keyword.line();
+        }
+
+        @Override
+        public Integer visitPrintStmt(final Stmt.Print stmt) {
+            return stmt.expression.accept(this);
+        }
+
+        @Override
+        public Integer visitReturnStmt(final Stmt.Return stmt) {
+            return stmt.keyword.line();
+        }
+
+        @Override
+        public Integer visitVarStmt(final Stmt.Var stmt) {
+            return stmt.name.line();
+        }
+
+        @Override
+        public Integer visitWhileStmt(final Stmt.While stmt) {
+            return stmt.condition.accept(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * An interpreter that records a {@link Profile} of every statement and expression it runs.
+ * Instrumentation lives entirely in this subclass so the plain {@link Interpreter} pays nothing for it.
+ * Loops are never compiled, as compiled code would run without passing through the instrumentation.
+ */
+final class ProfilingInterpreter extends Interpreter {
+    private final Profile profile = new Profile();
+
+    ProfilingInterpreter(final long memoryLimit) {
+        super(memoryLimit, NEVER_COMPILE);
+    }
+
+    Profile profile() {
+        return profile;
+    }
+
+    @Override
+    void resolveLogical(final Expr.Logical expr) {
+        super.resolveLogical(expr);
+        profile.branch(expr, expr.profile);
+    }
+
+    @Override
+    void execute(final Stmt stmt) {
+        profile.enter(stmt);
+        try {
+            super.execute(stmt);
+        } finally {
+            profile.exit();
+        }
+    }
+
+    @Override
+    Object evaluate(final Expr expr) {
+        profile.enter(expr);
+        try {
+            return super.evaluate(expr);
+        } finally {
+            profile.exit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A polymorphic inline cache for one property get or set, mapping the last few instance shapes seen at the site to
+ * what the property resolved to. A site that has seen more shapes than it can hold is megamorphic: it stops caching
+ * and every lookup goes to the shape.
+ */
+final class PropertySite {
+    static final int CAPACITY = 4;
+
+    // Entry CAPACITY is scratch space for megamorphic lookups.
+    final Shape[] shapes = new Shape[CAPACITY + 1];
+    /**
+     * For gets, the field's slot or {@link Shape.Property#METHOD}; for sets, the field's slot or -1 when the set
+     * adds the field.
+     */
+    final int[] slots = new int[CAPACITY + 1];
+    /**
+     * For gets, the method when the property isn't a field.
+     */
+    final LoxFunction[] methods = new LoxFunction[CAPACITY + 1];
+    /**
+     * For sets that add a field, the shape the instance moves to.
+     */
+    final Shape[] transitions = new Shape[CAPACITY + 1];
+    private int size = 0;
+
+    /**
+     * Find the cache entry describing a property read from an instance of the given shape, filling it on a miss.
+     *
+     * @param shape The instance's shape.
+     * @param name  The property name.
+     * @return The entry's index.
+     */
+    int get(final Shape shape, final Token name) {
+        for (var i = 0; i < size; i++) {
+            if (shapes[i] == shape) return i;
+        }
+
+        final var property = shape.lookup(name.lexeme());
+        if (property == null) {
+            throw new RuntimeError(name, "Undefined property '%s'.".formatted(name.lexeme()));
+        }
+        final var entry = add(shape);
+        slots[entry] = property.slot();
+        methods[entry] = property.method();
+        return entry;
+    }
+
+    /**
+     * Find the cache entry describing a field stored on an instance of the given shape, filling it on a miss.
+     *
+     * @param shape The instance's shape.
+     * @param name  The field name.
+     * @return The entry's index.
+     */
+    int set(final Shape shape, final Token name) {
+        for (var i = 0; i < size; i++) {
+            if (shapes[i] == shape) return i;
+        }
+
+        final var slot = shape.slotOf(name.lexeme());
+        final var entry = add(shape);
+        slots[entry] = slot;
+        transitions[entry] = slot < 0 ? shape.withField(name.lexeme()) : null;
+        return entry;
+    }
+
+    private int add(final Shape shape) {
+        final var entry = size < CAPACITY ? size++ : CAPACITY;
+        shapes[entry] = shape;
+        return entry;
+    }
+}
@@ -0,0 +1,133 @@
+package org.craftinginterpreters.lox;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-eval-print session. Definitions made by one entry stay visible to the next, since every entry runs on the
+ * same interpreter.
+ * An entry is read a line at a time until its brackets and strings are closed, so a function or class can be typed
+ * over several lines; a blank line runs what has been typed even if it is not, to show its errors. Each line is
+ * scanned on from the end of the last token before it, into one token list that is kept for the whole session, so a
+ * long entry is not scanned again for every line and the list is not regrown for every entry.
+ * Program output is buffered and only flushed when the session is about to wait for input, or before an error is
+ * printed, so input piped in is run at full speed rather than a flushed line at a time. Prompts are only printed
+ * when a person is typing.
+ */
+final class Repl {
+    /**
+     * Characters buffered for input and output.
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+    private static final String PROMPT = "> ";
+    private static final String CONTINUATION = "... ";
+
+    private final BufferedReader in;
+    private final boolean interactive;
+    private final StringBuilder entry = new StringBuilder();
+    private final List<Token> tokens = new ArrayList<>();
+    // Scanner errors in front of the last token of the entry, which scanning the next line will not find again.
+    private final List<Diagnostics.Diagnostic> scanErrors = new ArrayList<>();
+    // Scanner errors after the last token, such as an unterminated string, which the next line may yet fix.
+    private final Diagnostics tailErrors = new Diagnostics();
+    // Where scanning the next line starts: just after the last token, on its line.
+    private int resume = 0;
+    private int line = 1;
+    private int depth = 0;
+
+    /**
+     * @param in          Where entries are read from.
+     * @param interactive Whether a person is typing the entries, so they should be prompted for.
+     */
+    Repl(final BufferedReader in, final boolean interactive) {
+        this.in = in;
+        this.interactive = interactive;
+    }
+
+    /**
+     * Read and run entries until the input ends.
+     *
+     * @throws IOException Error reading the input.
+     */
+    void run() throws IOException {
+        final var original = System.out;
+        final var out = new PrintStream(new BufferedOutputStream(original, BUFFER_SIZE), false, original.charset());
+        System.setOut(out);
+        try {
+            for (; ; ) {
+                if (interactive) out.print(entry.isEmpty() ? PROMPT : CONTINUATION);
+                if (!in.ready()) out.flush();
+                final var text = in.readLine();
+                if (text == null) break;
+                entry.append(text).append('\n');
+                scan();
+                if (text.isBlank() || isComplete()) runEntry();
+            }
+            if (!entry.isEmpty()) runEntry();
+        } finally {
+            out.flush();
+            System.setOut(original);
+        }
+    }
+
+    /**
+     * Scan the entry from the end of its last token, recording it as {@link Lox#scan(String)} does.
+     */
+    private void scan() {
+        final var scanEvent = new ScanEvent();
+        scanEvent.begin();
+        final var started = System.nanoTime();
+        final var source = entry.toString();
+        if (!tokens.isEmpty()) tokens.remove(tokens.size() - 1);
+        final var from = resume;
+        final var scannedBefore = tokens.size();
+        tailErrors.reset();
+        final var scanner = new Scanner(source, tailErrors, resume, line, tokens);
+        for (var token = scanner.nextToken(); token.type() != TokenType.EOF; token = scanner.nextToken()) {
+            scanErrors.addAll(tailErrors.pending());
+            tailErrors.reset();
+            resume = scanner.position();
+            line = token.line();
+            switch (token.type()) {
+                case LEFT_PAREN, LEFT_BRACE, LEFT_BRACKET -> depth++;
+                case RIGHT_PAREN, RIGHT_BRACE, RIGHT_BRACKET -> depth--;
+                default -> {
+                }
+            }
+        }
+        final var scanned = tokens.size() - scannedBefore;
+        LoxMetrics.INSTANCE.scanned(System.nanoTime() - started, scanned);
+        scanEvent.sourceLength = source.length() - from;
+        scanEvent.tokenCount = scanned;
+        scanEvent.commit();
+    }
+
+    /**
+     * Whether the entry has no unclosed brackets or strings, so reading more of it could not change what it means.
+     */
+    private boolean isComplete() {
+        if (depth > 0) return false;
+        for (final var error : tailErrors.pending()) {
+            if (error.message().equals(Scanner.UNTERMINATED_STRING)) return false;
+        }
+        return true;
+    }
+
+    private void runEntry() {
+        Lox.diagnostics.addAll(scanErrors);
+        Lox.diagnostics.addAll(tailErrors.pending());
+        Lox.run(tokens);
+        Lox.diagnostics.reset();
+        entry.setLength(0);
+        tokens.clear();
+        scanErrors.clear();
+        tailErrors.reset();
+        resume = 0;
+        line = 1;
+        depth = 0;
+    }
+}
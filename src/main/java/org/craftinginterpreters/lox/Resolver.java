@@ -0,0 +1,430 @@
+package org.craftinginterpreters.lox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A static pass between parsing and interpreting that works out where every variable lives.
+ * Each local is given a {@link Slot} - how many scopes out it was declared and its index in that scope - and each
+ * block the number of slots it needs, so the interpreter reads and writes arrays instead of hashing names.
+ */
+class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    /**
+     * The locals declared so far in one block.
+     */
+    private static final class Scope {
+        final Map<String, Integer> slots = new HashMap<>();
+        final Set<String> initializing = new HashSet<>();
+    }
+
+    /**
+     * The function whose body is being resolved.
+     */
+    private static final class Function {
+        final Function enclosing;
+        final LoxFunction.Kind kind;
+        boolean declaresFunctions = false;
+
+        Function(final Function enclosing, final LoxFunction.Kind kind) {
+            this.enclosing = enclosing;
+            this.kind = kind;
+        }
+    }
+
+    private enum ClassType {
+        NONE, CLASS, SUBCLASS
+    }
+
+    private final Interpreter interpreter;
+    private final Diagnostics diagnostics;
+    private final List<Scope> scopes = new ArrayList<>();
+    // Modules imported so far, each resolved once however many times it is imported.
+    private final Set<Module> modules = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Function currentFunction = null;
+    private ClassType currentClass = ClassType.NONE;
+
+    Resolver(final Interpreter interpreter) {
+        this(interpreter, Lox.diagnostics);
+    }
+
+    /**
+     * @param interpreter The interpreter that records what is resolved.
+     * @param diagnostics Where to report resolution errors.
+     */
+    Resolver(final Interpreter interpreter, final Diagnostics diagnostics) {
+        this.interpreter = interpreter;
+        this.diagnostics = diagnostics;
+    }
+
+    void resolve(final List<Stmt> statements) {
+        for (final var statement : statements) {
+            resolve(statement);
+        }
+    }
+
+    @Override
+    public Void visitBlockStmt(final Stmt.Block stmt) {
+        scopes.add(new Scope());
+        resolve(stmt.statements);
+        final var scope = scopes.remove(scopes.size() - 1);
+        interpreter.resolveScope(stmt, scope.slots.size());
+        return null;
+    }
+
+    /**
+     * Methods close over a scope holding the superclass as {@code super}, when there is one. Each method's frame
+     * holds {@code this} in its first slot.
+     */
+    @Override
+    public Void visitClassStmt(final Stmt.Class stmt) {
+        final var enclosingClass = currentClass;
+        currentClass = ClassType.CLASS;
+
+        final var slot = declare(stmt.name);
+        define(stmt.name);
+        interpreter.resolveDeclaration(stmt, slot);
+
+        if (stmt.superclass != null) {
+            if (stmt.name.lexeme().equals(stmt.superclass.name.lexeme())) {
+                diagnostics.error(stmt.superclass.name, "A class can't inherit from itself.");
+            }
+            currentClass = ClassType.SUBCLASS;
+            resolve(stmt.superclass);
+
+            final var scope = new Scope();
+            scope.slots.put("super", 0);
+            scopes.add(scope);
+        }
+
+        for (final var method : stmt.methods) {
+            final var kind = method.name.lexeme().equals("init")
+                    ? LoxFunction.Kind.INITIALIZER : LoxFunction.Kind.METHOD;
+            resolveFunction(method, kind);
+        }
+
+        if (stmt.superclass != null) {
+            scopes.remove(scopes.size() - 1);
+        }
+        currentClass = enclosingClass;
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(final Stmt.Expression stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(final Stmt.Function stmt) {
+        // Defined before the body is resolved, so a function can call itself.
+        final var slot = declare(stmt.name);
+        define(stmt.name);
+        interpreter.resolveDeclaration(stmt, slot);
+        resolveFunction(stmt, LoxFunction.Kind.FUNCTION);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(final Stmt.If stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.thenBranch);
+        if (stmt.elseBranch != null) resolve(stmt.elseBranch);
+        return null;
+    }
+
+    /**
+     * A module's declarations are global, so it can only be imported at the top level, where they are resolved the
+     * first time it is.
+     */
+    @Override
+    public Void visitImportStmt(final Stmt.Import stmt) {
+        if (!scopes.isEmpty()) {
+            diagnostics.error(stmt.keyword, "Can't import from inside a block.");
+        } else if (stmt.module == null) {
+            diagnostics.error(stmt.path, "Could not read module.");
+        } else if (modules.add(stmt.module)) {
+            resolve(stmt.module.statements());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(final Stmt.Print stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(final Stmt.Return stmt) {
+        if (currentFunction == null) {
+            diagnostics.error(stmt.keyword, "Can't return from top-level code.");
+        }
+        if (stmt.value != null) {
+            if (currentFunction != null && currentFunction.kind == LoxFunction.Kind.INITIALIZER) {
+                diagnostics.error(stmt.keyword, "Can't return a value from an initializer.");
+            }
+            resolve(stmt.value);
+
+            var value = stmt.value;
+            while (value instanceof Expr.Grouping grouping) {
+                value = grouping.expression;
+            }
+            if (value instanceof Expr.Call call) {
+                interpreter.resolveTailCall(stmt, call);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(final Stmt.Var stmt) {
+        final var slot = declare(stmt.name);
+        if (stmt.initializer != null) {
+            resolve(stmt.initializer);
+        }
+        define(stmt.name);
+        interpreter.resolveDeclaration(stmt, slot);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(final Stmt.While stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.body);
+        interpreter.resolveLoop(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(final Expr.Assign expr) {
+        resolve(expr.value);
+        resolveVariable(expr, expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(final Expr.Binary expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(final Expr.Call expr) {
+        resolve(expr.callee);
+        for (final var argument : expr.arguments) {
+            resolve(argument);
+        }
+        interpreter.resolveCall(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitGetExpr(final Expr.Get expr) {
+        resolve(expr.object);
+        interpreter.resolveProperty(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(final Expr.Grouping expr) {
+        resolve(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(final Expr.Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitIndexExpr(final Expr.Index expr) {
+        resolve(expr.object);
+        resolve(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visitIndexSetExpr(final Expr.IndexSet expr) {
+        resolve(expr.object);
+        resolve(expr.index);
+        resolve(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitListLiteralExpr(final Expr.ListLiteral expr) {
+        for (final var element : expr.elements) {
+            resolve(element);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(final Expr.Logical expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        interpreter.resolveLogical(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitMapLiteralExpr(final Expr.MapLiteral expr) {
+        for (var i = 0; i < expr.keys.size(); i++) {
+            resolve(expr.keys.get(i));
+            resolve(expr.values.get(i));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitSetExpr(final Expr.Set expr) {
+        resolve(expr.object);
+        resolve(expr.value);
+        interpreter.resolveProperty(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitSuperExpr(final Expr.Super expr) {
+        if (currentClass == ClassType.NONE) {
+            diagnostics.error(expr.keyword, "Can't use 'super' outside of a class.");
+        } else if (currentClass != ClassType.SUBCLASS) {
+            diagnostics.error(expr.keyword, "Can't use 'super' in a class with no superclass.");
+        } else {
+            resolveVariable(expr, expr.keyword);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitThisExpr(final Expr.This expr) {
+        if (currentClass == ClassType.NONE) {
+            diagnostics.error(expr.keyword, "Can't use 'this' outside of a class.");
+        } else {
+            resolveVariable(expr, expr.keyword);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(final Expr.Unary expr) {
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(final Expr.Variable expr) {
+        if (!scopes.isEmpty() && innermost().initializing.contains(expr.name.lexeme())) {
+            diagnostics.error(expr.name, "Can't read local variable in its own initializer.");
+        }
+        resolveVariable(expr, expr.name);
+        return null;
+    }
+
+    /**
+     * The parameters and the body's top-level locals share one scope, which becomes the call's frame.
+     * A frame can only outlive its call when a function declared inside the body captures it, so frames of
+     * functions without nested declarations are marked as safe to reuse.
+     */
+    private void resolveFunction(final Stmt.Function stmt, final LoxFunction.Kind kind) {
+        if (currentFunction != null) currentFunction.declaresFunctions = true;
+        currentFunction = new Function(currentFunction, kind);
+        scopes.add(new Scope());
+        if (kind != LoxFunction.Kind.FUNCTION) {
+            innermost().slots.put("this", 0);
+        }
+
+        for (final var param : stmt.params) {
+            declare(param);
+            define(param);
+        }
+        resolve(stmt.body);
+
+        final var scope = scopes.remove(scopes.size() - 1);
+        interpreter.resolveFunction(stmt, scope.slots.size(), !currentFunction.declaresFunctions);
+        currentFunction = currentFunction.enclosing;
+    }
+
+    private void resolve(final Stmt stmt) {
+        stmt.accept(this);
+    }
+
+    /**
+     * Operator trees can be nested arbitrarily deep, so they are walked with a heap stack rather than recursion.
+     * Every other kind of node goes through the visitor.
+     */
+    private void resolve(final Expr expr) {
+        final var pending = new ArrayDeque<Expr>();
+        pending.push(expr);
+        while (!pending.isEmpty()) {
+            final var next = pending.pop();
+            if (next instanceof Expr.Binary binary) {
+                pending.push(binary.right);
+                pending.push(binary.left);
+            } else if (next instanceof Expr.Logical logical) {
+                interpreter.resolveLogical(logical);
+                pending.push(logical.right);
+                pending.push(logical.left);
+            } else if (next instanceof Expr.Unary unary) {
+                pending.push(unary.right);
+            } else if (next instanceof Expr.Grouping grouping) {
+                pending.push(grouping.expression);
+            } else {
+                next.accept(this);
+            }
+        }
+    }
+
+    /**
+     * Reserve a slot for a new variable in the innermost scope, or a global index at the top level.
+     * The variable cannot be read until {@link #define(Token)} marks its initializer as finished.
+     */
+    private Slot declare(final Token name) {
+        if (scopes.isEmpty()) {
+            return new Slot(Slot.GLOBAL, Globals.indexOf(name.lexeme()));
+        }
+
+        final var scope = innermost();
+        if (scope.slots.containsKey(name.lexeme())) {
+            diagnostics.error(name, "Already a variable with this name in this scope.");
+            return new Slot(0, scope.slots.get(name.lexeme()));
+        }
+
+        final var index = scope.slots.size();
+        scope.slots.put(name.lexeme(), index);
+        scope.initializing.add(name.lexeme());
+        return new Slot(0, index);
+    }
+
+    private void define(final Token name) {
+        if (scopes.isEmpty()) return;
+        innermost().initializing.remove(name.lexeme());
+    }
+
+    /**
+     * Find the innermost scope declaring the name. Anything not declared locally is assumed to be global.
+     */
+    private void resolveVariable(final Expr expr, final Token name) {
+        for (var i = scopes.size() - 1; i >= 0; i--) {
+            final var index = scopes.get(i).slots.get(name.lexeme());
+            if (index != null) {
+                interpreter.resolve(expr, new Slot(scopes.size() - 1 - i, index));
+                return;
+            }
+        }
+        interpreter.resolve(expr, new Slot(Slot.GLOBAL, Globals.indexOf(name.lexeme())));
+    }
+
+    private Scope innermost() {
+        return scopes.get(scopes.size() - 1);
+    }
+}
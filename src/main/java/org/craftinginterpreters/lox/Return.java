@@ -0,0 +1,14 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Unwinds the interpreter from a return statement to the enclosing call.
+ * This is control flow, not an error, so it skips capturing a stack trace.
+ */
+final class Return extends RuntimeException {
+    final Object value;
+
+    Return(final Object value) {
+        super(null, null, false, false);
+        this.value = value;
+    }
+}
@@ -3,12 +3,14 @@ package org.craftinginterpreters.lox;
 /**
  * Represents an error that has occurred during runtime.
  * We throw a custom exception that can be handled using our own logic.
+ * Its token locates it in the Lox program, so it skips capturing a Java stack trace, which would only locate it in
+ * the interpreter.
  */
 public class RuntimeError extends RuntimeException{
     final Token token;
 
     RuntimeError(final Token token, final String message) {
-        super(message);
+        super(message, null, false, false);
         this.token = token;
     }
 }
@@ -0,0 +1,60 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Vector kernels as plain loops, one element at a time.
+ */
+final class ScalarKernels implements VectorKernels {
+    @Override
+    public void apply(final TokenType operator, final double[] left, final double[] right, final double[] result) {
+        switch (operator) {
+            case PLUS -> { for (var i = 0; i < result.length; i++) result[i] = left[i] + right[i]; }
+            case MINUS -> { for (var i = 0; i < result.length; i++) result[i] = left[i] - right[i]; }
+            case STAR -> { for (var i = 0; i < result.length; i++) result[i] = left[i] * right[i]; }
+            case SLASH -> { for (var i = 0; i < result.length; i++) result[i] = left[i] / right[i]; }
+            default -> throw new IllegalArgumentException(operator.name());
+        }
+    }
+
+    @Override
+    public void apply(final TokenType operator, final double[] left, final double right, final double[] result) {
+        switch (operator) {
+            case PLUS -> { for (var i = 0; i < result.length; i++) result[i] = left[i] + right; }
+            case MINUS -> { for (var i = 0; i < result.length; i++) result[i] = left[i] - right; }
+            case STAR -> { for (var i = 0; i < result.length; i++) result[i] = left[i] * right; }
+            case SLASH -> { for (var i = 0; i < result.length; i++) result[i] = left[i] / right; }
+            default -> throw new IllegalArgumentException(operator.name());
+        }
+    }
+
+    @Override
+    public void apply(final TokenType operator, final double left, final double[] right, final double[] result) {
+        switch (operator) {
+            case PLUS -> { for (var i = 0; i < result.length; i++) result[i] = left + right[i]; }
+            case MINUS -> { for (var i = 0; i < result.length; i++) result[i] = left - right[i]; }
+            case STAR -> { for (var i = 0; i < result.length; i++) result[i] = left * right[i]; }
+            case SLASH -> { for (var i = 0; i < result.length; i++) result[i] = left / right[i]; }
+            default -> throw new IllegalArgumentException(operator.name());
+        }
+    }
+
+    @Override
+    public double sum(final double[] values) {
+        var sum = 0.0;
+        for (final var value : values) sum += value;
+        return sum;
+    }
+
+    @Override
+    public double min(final double[] values) {
+        var min = values[0];
+        for (final var value : values) min = Math.min(min, value);
+        return min;
+    }
+
+    @Override
+    public double max(final double[] values) {
+        var max = values[0];
+        for (final var value : values) max = Math.max(max, value);
+        return max;
+    }
+}
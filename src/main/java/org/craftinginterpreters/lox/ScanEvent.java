@@ -0,0 +1,22 @@
+package org.craftinginterpreters.lox;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one call to {@link Scanner#scanTokens()}.
+ */
+@Name("org.craftinginterpreters.lox.Scan")
+@Label("Lox Scan")
+@Category("Lox")
+@Description("Source text scanned into tokens")
+final class ScanEvent extends Event {
+    @Label("Source Length")
+    int sourceLength;
+
+    @Label("Token Count")
+    int tokenCount;
+}
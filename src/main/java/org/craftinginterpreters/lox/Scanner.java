@@ -3,8 +3,14 @@ package org.craftinginterpreters.lox;
 import java.util.*;
 
 class Scanner {
+    /**
+     * Reported when the source ends inside a string, which may just mean more of the source is still to come.
+     */
+    static final String UNTERMINATED_STRING = "Unterminated string.";
+
     private final String source;
-    private final List<Token> tokens = new ArrayList<>();
+    private final Diagnostics diagnostics;
+    private final List<Token> tokens;
     private int start = 0;
     private int current = 0;
     private int line = 1;
@@ -18,6 +24,7 @@ class Scanner {
         keywords.put("for", TokenType.FOR);
         keywords.put("fun", TokenType.FUN);
         keywords.put("if", TokenType.IF);
+        keywords.put("import", TokenType.IMPORT);
         keywords.put("nil", TokenType.NIL);
         keywords.put("or", TokenType.OR);
         keywords.put("print", TokenType.PRINT);
@@ -30,7 +37,44 @@ class Scanner {
     }
 
     Scanner(String source) {
+        this(source, Lox.diagnostics);
+    }
+
+    /**
+     * @param source      The source code.
+     * @param diagnostics Where to report unexpected characters and unterminated strings.
+     */
+    Scanner(final String source, final Diagnostics diagnostics) {
+        this(source, diagnostics, new ArrayList<>());
+    }
+
+    /**
+     * @param tokens Where to add the tokens, after any it already holds, so one list can be reused across scans.
+     */
+    Scanner(final String source, final Diagnostics diagnostics, final List<Token> tokens) {
         this.source = source;
+        this.diagnostics = diagnostics;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Start scanning part way through the source, for {@link #nextToken()}.
+     *
+     * @param offset Where to start, just after a token or at the start of the source.
+     * @param line   The line that offset is on.
+     */
+    Scanner(final String source, final Diagnostics diagnostics, final int offset, final int line) {
+        this(source, diagnostics, offset, line, new ArrayList<>());
+    }
+
+    /**
+     * Start scanning part way through the source, adding the tokens to a list that may already hold some.
+     */
+    Scanner(final String source, final Diagnostics diagnostics, final int offset, final int line,
+            final List<Token> tokens) {
+        this(source, diagnostics, tokens);
+        this.current = offset;
+        this.line = line;
     }
 
     List<Token> scanTokens() {
@@ -44,6 +88,36 @@ class Scanner {
         return tokens;
     }
 
+    /**
+     * Scan up to and including the next token, which is EOF once the source runs out.
+     */
+    Token nextToken() {
+        final var scanned = tokens.size();
+        while (!isAtEnd() && tokens.size() == scanned) {
+            start = current;
+            scanToken();
+        }
+        if (tokens.size() == scanned) {
+            start = current;
+            tokens.add(new Token(TokenType.EOF, "", null, line));
+        }
+        return tokens.get(tokens.size() - 1);
+    }
+
+    /**
+     * Where the token last returned by {@link #nextToken()} starts.
+     */
+    int tokenStart() {
+        return start;
+    }
+
+    /**
+     * Where scanning will carry on from: just after the token last returned by {@link #nextToken()}.
+     */
+    int position() {
+        return current;
+    }
+
     private boolean isAtEnd() {
         return current >= source.length();
     }
@@ -56,7 +130,10 @@ class Scanner {
             case ')' -> addToken(TokenType.RIGHT_PAREN);
             case '{' -> addToken(TokenType.LEFT_BRACE);
             case '}' -> addToken(TokenType.RIGHT_BRACE);
+            case '[' -> addToken(TokenType.LEFT_BRACKET);
+            case ']' -> addToken(TokenType.RIGHT_BRACKET);
             case ',' -> addToken(TokenType.COMMA);
+            case ':' -> addToken(TokenType.COLON);
             case '.' -> addToken(TokenType.DOT);
             case '-' -> addToken(TokenType.MINUS);
             case '+' -> addToken(TokenType.PLUS);
@@ -100,7 +177,7 @@ class Scanner {
                 } else if (isAlpha(c)) {
                     identifier();
                 } else {
-                    Lox.error(line, "Unexpected character.");
+                    diagnostics.error(line, "Unexpected character.");
                 }
             }
         }
@@ -116,7 +193,7 @@ class Scanner {
         }
 
         if (isAtEnd()) {
-            Lox.error(line, "Unterminated string.");
+            diagnostics.error(line, UNTERMINATED_STRING);
             return;
         }
 
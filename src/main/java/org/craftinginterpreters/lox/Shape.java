@@ -0,0 +1,85 @@
+package org.craftinginterpreters.lox;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A hidden class: the class of an instance plus the names and order of the fields it has been given.
+ * Instances built the same way share a shape, so a field's position in the instance's array is a property of the
+ * shape alone and can be cached by {@link PropertySite}s with a single identity comparison.
+ * Shapes are immutable; adding a field moves the instance along a cached transition to the next shape.
+ */
+final class Shape {
+    /**
+     * What a property name means on instances of a shape: a field's slot, or a method when there is no such field.
+     */
+    record Property(int slot, LoxFunction method) {
+        static final int METHOD = -1;
+    }
+
+    final LoxClass klass;
+    private final Map<String, Integer> slots;
+    private final Map<String, Shape> transitions = new HashMap<>();
+    private final Map<String, Property> properties = new HashMap<>();
+
+    /**
+     * The shape of a new instance of the class, before any field is set.
+     */
+    Shape(final LoxClass klass) {
+        this(klass, Map.of());
+    }
+
+    private Shape(final LoxClass klass, final Map<String, Integer> slots) {
+        this.klass = klass;
+        this.slots = slots;
+    }
+
+    /**
+     * The number of fields an instance of this shape has.
+     */
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * The slot of the named field, or -1 when instances of this shape don't have it.
+     */
+    int slotOf(final String name) {
+        return slots.getOrDefault(name, -1);
+    }
+
+    /**
+     * The shape reached by adding a new field, which takes the next slot.
+     *
+     * @param name A field not in this shape.
+     */
+    Shape withField(final String name) {
+        return transitions.computeIfAbsent(name, key -> {
+            final var next = new HashMap<>(slots);
+            next.put(key, slots.size());
+            return new Shape(klass, next);
+        });
+    }
+
+    /**
+     * Look up a property. Fields shadow methods, and methods are searched up the superclass chain.
+     *
+     * @param name The property name.
+     * @return The property, or null when neither a field nor a method has the name.
+     */
+    Property lookup(final String name) {
+        var property = properties.get(name);
+        if (property == null) {
+            final var slot = slotOf(name);
+            if (slot >= 0) {
+                property = new Property(slot, null);
+            } else {
+                final var method = klass.findMethod(name);
+                if (method == null) return null;
+                property = new Property(Property.METHOD, method);
+            }
+            properties.put(name, property);
+        }
+        return property;
+    }
+}
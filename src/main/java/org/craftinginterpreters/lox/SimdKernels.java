@@ -0,0 +1,163 @@
+package org.craftinginterpreters.lox;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector kernels over the widest {@link DoubleVector} the CPU supports, finishing the elements that do not fill a
+ * whole vector one at a time. Only loaded when the {@code jdk.incubator.vector} module is present.
+ * Every loop names its lane operation directly: C2 only turns a lane operation into SIMD instructions when the
+ * operation is a constant, so choosing one at runtime and passing it in would run far slower than a plain loop.
+ * Sums add up lane by lane and combine the lanes at the end, so their rounding can differ from a plain loop's.
+ */
+final class SimdKernels implements VectorKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public void apply(final TokenType operator, final double[] left, final double[] right, final double[] result) {
+        final var bound = SPECIES.loopBound(result.length);
+        var i = 0;
+        switch (operator) {
+            case PLUS -> {
+                for (; i < bound; i += LANES) {
+                    DoubleVector.fromArray(SPECIES, left, i).add(DoubleVector.fromArray(SPECIES, right, i))
+                            .intoArray(result, i);
+                }
+            }
+            case MINUS -> {
+                for (; i < bound; i += LANES) {
+                    DoubleVector.fromArray(SPECIES, left, i).sub(DoubleVector.fromArray(SPECIES, right, i))
+                            .intoArray(result, i);
+                }
+            }
+            case STAR -> {
+                for (; i < bound; i += LANES) {
+                    DoubleVector.fromArray(SPECIES, left, i).mul(DoubleVector.fromArray(SPECIES, right, i))
+                            .intoArray(result, i);
+                }
+            }
+            case SLASH -> {
+                for (; i < bound; i += LANES) {
+                    DoubleVector.fromArray(SPECIES, left, i).div(DoubleVector.fromArray(SPECIES, right, i))
+                            .intoArray(result, i);
+                }
+            }
+            default -> throw new IllegalArgumentException(operator.name());
+        }
+        for (; i < result.length; i++) {
+            result[i] = scalar(operator, left[i], right[i]);
+        }
+    }
+
+    @Override
+    public void apply(final TokenType operator, final double[] left, final double right, final double[] result) {
+        final var bound = SPECIES.loopBound(result.length);
+        var i = 0;
+        switch (operator) {
+            case PLUS -> {
+                for (; i < bound; i += LANES) DoubleVector.fromArray(SPECIES, left, i).add(right).intoArray(result, i);
+            }
+            case MINUS -> {
+                for (; i < bound; i += LANES) DoubleVector.fromArray(SPECIES, left, i).sub(right).intoArray(result, i);
+            }
+            case STAR -> {
+                for (; i < bound; i += LANES) DoubleVector.fromArray(SPECIES, left, i).mul(right).intoArray(result, i);
+            }
+            case SLASH -> {
+                for (; i < bound; i += LANES) DoubleVector.fromArray(SPECIES, left, i).div(right).intoArray(result, i);
+            }
+            default -> throw new IllegalArgumentException(operator.name());
+        }
+        for (; i < result.length; i++) {
+            result[i] = scalar(operator, left[i], right);
+        }
+    }
+
+    @Override
+    public void apply(final TokenType operator, final double left, final double[] right, final double[] result) {
+        final var broadcast = DoubleVector.broadcast(SPECIES, left);
+        final var bound = SPECIES.loopBound(result.length);
+        var i = 0;
+        switch (operator) {
+            case PLUS -> {
+                for (; i < bound; i += LANES) broadcast.add(DoubleVector.fromArray(SPECIES, right, i)).intoArray(result, i);
+            }
+            case MINUS -> {
+                for (; i < bound; i += LANES) broadcast.sub(DoubleVector.fromArray(SPECIES, right, i)).intoArray(result, i);
+            }
+            case STAR -> {
+                for (; i < bound; i += LANES) broadcast.mul(DoubleVector.fromArray(SPECIES, right, i)).intoArray(result, i);
+            }
+            case SLASH -> {
+                for (; i < bound; i += LANES) broadcast.div(DoubleVector.fromArray(SPECIES, right, i)).intoArray(result, i);
+            }
+            default -> throw new IllegalArgumentException(operator.name());
+        }
+        for (; i < result.length; i++) {
+            result[i] = scalar(operator, left, right[i]);
+        }
+    }
+
+    @Override
+    public double sum(final double[] values) {
+        final var bound = SPECIES.loopBound(values.length);
+        var sums = DoubleVector.zero(SPECIES);
+        var i = 0;
+        for (; i < bound; i += LANES) {
+            sums = sums.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        var sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(final double[] values) {
+        final var bound = SPECIES.loopBound(values.length);
+        var i = 0;
+        var min = values[0];
+        if (bound > 0) {
+            var lanes = DoubleVector.fromArray(SPECIES, values, 0);
+            for (i = LANES; i < bound; i += LANES) {
+                lanes = lanes.min(DoubleVector.fromArray(SPECIES, values, i));
+            }
+            min = lanes.reduceLanes(VectorOperators.MIN);
+        }
+        for (; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(final double[] values) {
+        final var bound = SPECIES.loopBound(values.length);
+        var i = 0;
+        var max = values[0];
+        if (bound > 0) {
+            var lanes = DoubleVector.fromArray(SPECIES, values, 0);
+            for (i = LANES; i < bound; i += LANES) {
+                lanes = lanes.max(DoubleVector.fromArray(SPECIES, values, i));
+            }
+            max = lanes.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    private static double scalar(final TokenType operator, final double left, final double right) {
+        return switch (operator) {
+            case PLUS -> left + right;
+            case MINUS -> left - right;
+            case STAR -> left * right;
+            case SLASH -> left / right;
+            default -> throw new IllegalArgumentException(operator.name());
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Where the {@link Resolver} found a variable: the number of scopes to walk out and the index within that scope.
+ * Global variables have depth {@link #GLOBAL} and are indexed by {@link Globals#indexOf(String)}.
+ *
+ * @param depth The number of enclosing scopes between the use and the declaration, or {@link #GLOBAL}.
+ * @param index The variable's index within its scope.
+ */
+record Slot(int depth, int index) {
+    static final int GLOBAL = -1;
+
+    boolean isGlobal() {
+        return depth == GLOBAL;
+    }
+}
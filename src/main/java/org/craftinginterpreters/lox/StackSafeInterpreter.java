@@ -0,0 +1,117 @@
+package org.craftinginterpreters.lox;
+
+import java.util.Arrays;
+
+/**
+ * An interpreter that evaluates operator trees with an explicit work stack and value stack rather than recursion,
+ * so expressions nested tens of thousands deep run on any thread without a large {@code -Xss}.
+ * Nodes are visited in the same post-order as {@link Interpreter}, so results, side effects and errors are identical.
+ * Loops are never compiled, as compiled expressions recurse on the Java stack.
+ */
+final class StackSafeInterpreter extends Interpreter {
+    // Nodes waiting to be evaluated. A node is pushed twice: once to expand its operands, then once more,
+    // marked as expanded, to combine the operand values once they are on the value stack.
+    private Expr[] work = new Expr[64];
+    private boolean[] expanded = new boolean[64];
+    private int workTop = 0;
+
+    private Object[] values = new Object[64];
+    private int valueTop = 0;
+
+    StackSafeInterpreter(final long memoryLimit) {
+        super(memoryLimit, NEVER_COMPILE);
+    }
+
+    /**
+     * Evaluate without recursing through operators and groups. Other kinds of node are handed to the visitor,
+     * which comes back here for their operands, so re-entrant calls share the stacks above their own base.
+     *
+     * @param expr The expression to evaluate.
+     * @return The value of the expression.
+     */
+    @Override
+    Object evaluate(final Expr expr) {
+        final var workBase = workTop;
+        final var valueBase = valueTop;
+        try {
+            push(expr, false);
+            while (workTop > workBase) {
+                final var node = work[--workTop];
+                final var combine = expanded[workTop];
+                work[workTop] = null;
+
+                if (node instanceof Expr.Binary binary) {
+                    // An operand shared by both sides is only evaluated once.
+                    final var same = binary.right == binary.left;
+                    if (combine) {
+                        final var right = values[--valueTop];
+                        final var left = same ? right : values[--valueTop];
+                        pushValue(binary.numeric
+                                ? numbers(binary.operator, (double) left, (double) right)
+                                : binary(binary.operator, left, right));
+                    } else {
+                        push(binary, true);
+                        if (!same) push(binary.right, false);
+                        push(binary.left, false);
+                    }
+                } else if (node instanceof Expr.Logical logical) {
+                    if (combine) {
+                        // The left operand's value stays as the result unless the right operand is needed.
+                        if (!shortCircuits(logical, values[valueTop - 1])) {
+                            values[--valueTop] = null;
+                            push(logical.right, false);
+                        }
+                    } else {
+                        push(logical, true);
+                        push(logical.left, false);
+                    }
+                } else if (node instanceof Expr.Unary unary) {
+                    if (combine) {
+                        final var operand = values[--valueTop];
+                        if (unary.numeric) {
+                            memory.allocate(unary.operator, MemoryBudget.NUMBER_BYTES);
+                            pushValue(-(double) operand);
+                        } else {
+                            pushValue(unary(unary.operator, operand));
+                        }
+                    } else {
+                        push(unary, true);
+                        push(unary.right, false);
+                    }
+                } else if (node instanceof Expr.Grouping grouping) {
+                    push(grouping.expression, false);
+                } else if (node instanceof Expr.Literal literal) {
+                    pushValue(literal.value);
+                } else {
+                    pushValue(node.accept(this));
+                }
+            }
+
+            final var result = values[--valueTop];
+            values[valueTop] = null;
+            return result;
+        } finally {
+            // Unwind whatever a runtime error left behind.
+            Arrays.fill(work, workBase, workTop, null);
+            Arrays.fill(values, valueBase, valueTop, null);
+            workTop = workBase;
+            valueTop = valueBase;
+        }
+    }
+
+    private void push(final Expr expr, final boolean combine) {
+        if (workTop == work.length) {
+            work = Arrays.copyOf(work, workTop * 2);
+            expanded = Arrays.copyOf(expanded, workTop * 2);
+        }
+        work[workTop] = expr;
+        expanded[workTop++] = combine;
+    }
+
+    private void pushValue(final Object value) {
+        if (valueTop == values.length) {
+            values = Arrays.copyOf(values, valueTop * 2);
+        }
+        values[valueTop++] = value;
+    }
+}
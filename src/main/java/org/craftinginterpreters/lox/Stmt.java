@@ -1,13 +1,59 @@
 // This file is autogenerated by src/main/java/org/craftinginterpreters/tool/GenerateAst.java. Do not edit by hand!
 package org.craftinginterpreters.lox;
 
-abstract class Stmt {
+import java.util.List;
+
+abstract sealed class Stmt {
     interface Visitor<R> {
+        R visitBlockStmt(final Block stmt);
+        R visitClassStmt(final Class stmt);
         R visitExpressionStmt(final Expression stmt);
+        R visitFunctionStmt(final Function stmt);
+        R visitIfStmt(final If stmt);
+        R visitImportStmt(final Import stmt);
         R visitPrintStmt(final Print stmt);
+        R visitReturnStmt(final Return stmt);
+        R visitVarStmt(final Var stmt);
+        R visitWhileStmt(final While stmt);
+    }
+
+    static final class Block extends Stmt {
+        Block(final List<Stmt> statements) {
+            this.statements = statements;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitBlockStmt(this);
+        }
+
+        final List<Stmt> statements;
+
+        // Runtime state, filled in after parsing.
+        int scopeSize;
+    }
+
+    static final class Class extends Stmt {
+        Class(final Token name, Expr.Variable superclass, List<Stmt.Function> methods) {
+            this.name = name;
+            this.superclass = superclass;
+            this.methods = methods;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitClassStmt(this);
+        }
+
+        final Token name;
+        final Expr.Variable superclass;
+        final List<Stmt.Function> methods;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
     }
 
-    static class Expression extends Stmt {
+    static final class Expression extends Stmt {
         Expression(final Expr expression) {
             this.expression = expression;
         }
@@ -20,7 +66,64 @@ abstract class Stmt {
         final Expr expression;
     }
 
-    static class Print extends Stmt {
+    static final class Function extends Stmt {
+        Function(final Token name, List<Token> params, List<Stmt> body) {
+            this.name = name;
+            this.params = params;
+            this.body = body;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitFunctionStmt(this);
+        }
+
+        final Token name;
+        final List<Token> params;
+        final List<Stmt> body;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
+        int frameSize;
+        boolean poolFrames;
+    }
+
+    static final class If extends Stmt {
+        If(final Expr condition, Stmt thenBranch, Stmt elseBranch) {
+            this.condition = condition;
+            this.thenBranch = thenBranch;
+            this.elseBranch = elseBranch;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitIfStmt(this);
+        }
+
+        final Expr condition;
+        final Stmt thenBranch;
+        final Stmt elseBranch;
+    }
+
+    static final class Import extends Stmt {
+        Import(final Token keyword, Token path) {
+            this.keyword = keyword;
+            this.path = path;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitImportStmt(this);
+        }
+
+        final Token keyword;
+        final Token path;
+
+        // Runtime state, filled in after parsing.
+        Module module;
+    }
+
+    static final class Print extends Stmt {
         Print(final Expr expression) {
             this.expression = expression;
         }
@@ -33,6 +136,60 @@ abstract class Stmt {
         final Expr expression;
     }
 
+    static final class Return extends Stmt {
+        Return(final Token keyword, Expr value) {
+            this.keyword = keyword;
+            this.value = value;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitReturnStmt(this);
+        }
+
+        final Token keyword;
+        final Expr value;
+
+        // Runtime state, filled in after parsing.
+        Expr.Call tailCall;
+    }
+
+    static final class Var extends Stmt {
+        Var(final Token name, Expr initializer) {
+            this.name = name;
+            this.initializer = initializer;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitVarStmt(this);
+        }
+
+        final Token name;
+        final Expr initializer;
+
+        // Runtime state, filled in after parsing.
+        Slot slot;
+    }
+
+    static final class While extends Stmt {
+        While(final Expr condition, Stmt body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        <R> R accept(final Visitor<R> visitor) {
+            return visitor.visitWhileStmt(this);
+        }
+
+        final Expr condition;
+        final Stmt body;
+
+        // Runtime state, filled in after parsing.
+        LoopState loop;
+    }
+
     abstract <R> R accept(final Visitor<R> visitor);
 }
 
@@ -0,0 +1,55 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * An interpreter that picks the code for each node with an exhaustive pattern-matching switch over the sealed
+ * syntax tree instead of double dispatch through {@code accept}. The visit methods are unchanged, so behaviour is
+ * identical; only how a node reaches its visit method differs.
+ */
+final class SwitchInterpreter extends Interpreter {
+    /**
+     * @param memoryLimit  The maximum number of bytes this interpreter may allocate for Lox values.
+     * @param osrThreshold The number of iterations after which a running loop is switched to compiled code,
+     *                     or {@link #NEVER_COMPILE}.
+     */
+    SwitchInterpreter(final long memoryLimit, final long osrThreshold) {
+        super(memoryLimit, osrThreshold);
+    }
+
+    @Override
+    void execute(final Stmt stmt) {
+        switch (stmt) {
+            case Stmt.Block block -> visitBlockStmt(block);
+            case Stmt.Class klass -> visitClassStmt(klass);
+            case Stmt.Expression expression -> visitExpressionStmt(expression);
+            case Stmt.Function function -> visitFunctionStmt(function);
+            case Stmt.If branch -> visitIfStmt(branch);
+            case Stmt.Import imported -> visitImportStmt(imported);
+            case Stmt.Print print -> visitPrintStmt(print);
+            case Stmt.Return ret -> visitReturnStmt(ret);
+            case Stmt.Var var -> visitVarStmt(var);
+            case Stmt.While loop -> visitWhileStmt(loop);
+        }
+    }
+
+    @Override
+    Object evaluate(final Expr expr) {
+        return switch (expr) {
+            case Expr.Assign assign -> visitAssignExpr(assign);
+            case Expr.Binary binary -> visitBinaryExpr(binary);
+            case Expr.Call call -> visitCallExpr(call);
+            case Expr.Get get -> visitGetExpr(get);
+            case Expr.Grouping grouping -> visitGroupingExpr(grouping);
+            case Expr.Index index -> visitIndexExpr(index);
+            case Expr.IndexSet indexSet -> visitIndexSetExpr(indexSet);
+            case Expr.ListLiteral list -> visitListLiteralExpr(list);
+            case Expr.Literal literal -> visitLiteralExpr(literal);
+            case Expr.Logical logical -> visitLogicalExpr(logical);
+            case Expr.MapLiteral map -> visitMapLiteralExpr(map);
+            case Expr.Set set -> visitSetExpr(set);
+            case Expr.Super superExpr -> visitSuperExpr(superExpr);
+            case Expr.This self -> visitThisExpr(self);
+            case Expr.Unary unary -> visitUnaryExpr(unary);
+            case Expr.Variable variable -> visitVariableExpr(variable);
+        };
+    }
+}
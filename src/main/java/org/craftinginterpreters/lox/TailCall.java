@@ -0,0 +1,20 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * Unwinds a function body that ends in a tail call back to {@link LoxFunction#invoke}, which then runs the callee
+ * in place of the finished call, so tail recursion loops rather than growing the Java stack.
+ */
+final class TailCall extends RuntimeException {
+    final LoxFunction function;
+    final Environment frame;
+
+    /**
+     * @param function The function to call next.
+     * @param frame    The callee's frame, with its arguments already in place.
+     */
+    TailCall(final LoxFunction function, final Environment frame) {
+        super(null, null, false, false);
+        this.function = function;
+        this.frame = frame;
+    }
+}
@@ -1,6 +1,73 @@
 package org.craftinginterpreters.lox;
 
-record Token(TokenType type, String lexeme, Object literal, int line) {
+import java.util.Objects;
+
+/**
+ * A token and the line it was found on. A token can be {@link #rebase rebased} onto a {@link LineBase}, after which it
+ * keeps its line relative to the base, so moving the base moves every token on it to other lines at once.
+ */
+final class Token {
+    /**
+     * A line that tokens count theirs from, such as the first line of a declaration.
+     */
+    static final class LineBase {
+        int line;
+
+        LineBase(final int line) {
+            this.line = line;
+        }
+    }
+
+    private final TokenType type;
+    private final String lexeme;
+    private final Object literal;
+    private int line;
+    private LineBase base = null;
+
+    Token(final TokenType type, final String lexeme, final Object literal, final int line) {
+        this.type = type;
+        this.lexeme = lexeme;
+        this.literal = literal;
+        this.line = line;
+    }
+
+    TokenType type() {
+        return type;
+    }
+
+    String lexeme() {
+        return lexeme;
+    }
+
+    Object literal() {
+        return literal;
+    }
+
+    int line() {
+        return base == null ? line : base.line + line;
+    }
+
+    /**
+     * Count the token's line from a base from now on, keeping it on the line it is on now.
+     *
+     * @param base The base to follow when it moves.
+     */
+    void rebase(final LineBase base) {
+        line = line() - base.line;
+        this.base = base;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Token token && type == token.type && Objects.equals(lexeme, token.lexeme)
+                && Objects.equals(literal, token.literal) && line() == token.line();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, lexeme, literal, line());
+    }
+
     public String toString() {
         return type + " " + lexeme + " " + literal;
     }
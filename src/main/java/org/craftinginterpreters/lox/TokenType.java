@@ -6,7 +6,10 @@ public enum TokenType {
     RIGHT_PAREN,
     LEFT_BRACE,
     RIGHT_BRACE,
+    LEFT_BRACKET,
+    RIGHT_BRACKET,
     COMMA,
+    COLON,
     DOT,
     MINUS,
     PLUS,
@@ -37,6 +40,7 @@ public enum TokenType {
     FUN,
     FOR,
     IF,
+    IMPORT,
     NIL,
     OR,
     PRINT,
@@ -0,0 +1,244 @@
+package org.craftinginterpreters.lox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A static pass after resolution that proves which arithmetic and comparison operators can only ever see numbers,
+ * and marks them {@code numeric} so the interpreter skips their operand checks.
+ * An expression is known to be a number when it is a number literal, a negation - which either yields a number or
+ * fails - or arithmetic or a logical operator over known numbers, or when it reads or assigns a number variable.
+ * A number variable is a local declared with {@code var} whose initializer and every assignment are known numbers.
+ * Variables are assumed to be numbers and ruled out until nothing changes, so loop counters such as
+ * {@code i = i + 1} qualify. Globals, parameters and everything else may hold any value, so operators reading them
+ * keep their checks, and a program that fails a check reports the same error it always did.
+ */
+final class TypeInference {
+    /**
+     * A local declared with {@code var}, and every value stored in it.
+     */
+    private static final class Local {
+        final List<Expr> stores = new ArrayList<>();
+        boolean number = true;
+    }
+
+    // The locals of each environment that will exist at run time, innermost last, indexed like their slots.
+    private final List<Local[]> scopes = new ArrayList<>();
+    private final List<Local> locals = new ArrayList<>();
+    private final Map<Expr.Variable, Local> reads = new IdentityHashMap<>();
+    private final List<Expr> operators = new ArrayList<>();
+    private final Set<Module> modules = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param statements A resolved program.
+     */
+    void infer(final List<Stmt> statements) {
+        walk(statements);
+
+        for (var changed = true; changed; ) {
+            changed = false;
+            for (final var local : locals) {
+                if (local.number && !local.stores.stream().allMatch(this::isNumber)) {
+                    local.number = false;
+                    changed = true;
+                }
+            }
+        }
+
+        for (final var operator : operators) {
+            if (operator instanceof Expr.Binary binary) {
+                binary.numeric = switch (binary.operator.type()) {
+                    case PLUS, MINUS, STAR, SLASH, GREATER, GREATER_EQUAL, LESS, LESS_EQUAL ->
+                            isNumber(binary.left) && isNumber(binary.right);
+                    default -> false;
+                };
+            } else if (operator instanceof Expr.Unary unary) {
+                unary.numeric = unary.operator.type() == TokenType.MINUS && isNumber(unary.right);
+            }
+        }
+    }
+
+    private void walk(final List<Stmt> statements) {
+        for (final var statement : statements) {
+            walk(statement);
+        }
+    }
+
+    /**
+     * Mirrors the environments the interpreter creates, so a resolved slot finds the local it refers to.
+     */
+    private void walk(final Stmt stmt) {
+        switch (stmt) {
+            case Stmt.Block block -> {
+                scopes.add(new Local[block.scopeSize]);
+                walk(block.statements);
+                scopes.remove(scopes.size() - 1);
+            }
+            case Stmt.Class klass -> {
+                if (klass.superclass != null) {
+                    walk(klass.superclass);
+                    scopes.add(new Local[1]);
+                }
+                for (final var method : klass.methods) {
+                    walk(method);
+                }
+                if (klass.superclass != null) scopes.remove(scopes.size() - 1);
+            }
+            case Stmt.Expression expression -> walk(expression.expression);
+            case Stmt.Function function -> {
+                scopes.add(new Local[function.frameSize]);
+                walk(function.body);
+                scopes.remove(scopes.size() - 1);
+            }
+            case Stmt.If branch -> {
+                walk(branch.condition);
+                walk(branch.thenBranch);
+                if (branch.elseBranch != null) walk(branch.elseBranch);
+            }
+            case Stmt.Import imported -> {
+                if (modules.add(imported.module)) walk(imported.module.statements());
+            }
+            case Stmt.Print print -> walk(print.expression);
+            case Stmt.Return result -> {
+                if (result.value != null) walk(result.value);
+            }
+            case Stmt.Var var -> {
+                if (var.initializer != null) walk(var.initializer);
+                if (var.slot.isGlobal()) return;
+                final var local = new Local();
+                if (var.initializer == null) {
+                    local.number = false;
+                } else {
+                    local.stores.add(var.initializer);
+                }
+                locals.add(local);
+                scopes.get(scopes.size() - 1)[var.slot.index()] = local;
+            }
+            case Stmt.While loop -> {
+                walk(loop.condition);
+                walk(loop.body);
+            }
+        }
+    }
+
+    /**
+     * Expressions can be nested arbitrarily deep, so they are walked with a heap stack rather than recursion.
+     */
+    private void walk(final Expr expr) {
+        final var pending = new ArrayDeque<Expr>();
+        pending.push(expr);
+        while (!pending.isEmpty()) {
+            switch (pending.pop()) {
+                case Expr.Assign assign -> {
+                    final var local = local(assign.slot);
+                    if (local != null) local.stores.add(assign.value);
+                    pending.push(assign.value);
+                }
+                case Expr.Binary binary -> {
+                    operators.add(binary);
+                    pending.push(binary.right);
+                    pending.push(binary.left);
+                }
+                case Expr.Call call -> {
+                    pending.push(call.callee);
+                    call.arguments.forEach(pending::push);
+                }
+                case Expr.Get get -> pending.push(get.object);
+                case Expr.Grouping grouping -> pending.push(grouping.expression);
+                case Expr.Index index -> {
+                    pending.push(index.object);
+                    pending.push(index.index);
+                }
+                case Expr.IndexSet indexSet -> {
+                    pending.push(indexSet.object);
+                    pending.push(indexSet.index);
+                    pending.push(indexSet.value);
+                }
+                case Expr.ListLiteral list -> list.elements.forEach(pending::push);
+                case Expr.Literal literal -> {
+                }
+                case Expr.Logical logical -> {
+                    pending.push(logical.right);
+                    pending.push(logical.left);
+                }
+                case Expr.MapLiteral map -> {
+                    map.keys.forEach(pending::push);
+                    map.values.forEach(pending::push);
+                }
+                case Expr.Set set -> {
+                    pending.push(set.object);
+                    pending.push(set.value);
+                }
+                case Expr.Super ignored -> {
+                }
+                case Expr.This ignored -> {
+                }
+                case Expr.Unary unary -> {
+                    operators.add(unary);
+                    pending.push(unary.right);
+                }
+                case Expr.Variable variable -> {
+                    final var local = local(variable.slot);
+                    if (local != null) reads.put(variable, local);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The {@code var} local a slot refers to, or null for a global or any other kind of variable.
+     */
+    private Local local(final Slot slot) {
+        if (slot.isGlobal()) return null;
+        return scopes.get(scopes.size() - 1 - slot.depth())[slot.index()];
+    }
+
+    /**
+     * Whether an expression can only evaluate to a number, given what is currently known about the locals.
+     */
+    private boolean isNumber(final Expr expr) {
+        final var pending = new ArrayDeque<Expr>();
+        pending.push(expr);
+        while (!pending.isEmpty()) {
+            switch (pending.pop()) {
+                case Expr.Literal literal -> {
+                    if (!(literal.value instanceof Double)) return false;
+                }
+                case Expr.Unary unary -> {
+                    // Negation fails on anything but a number.
+                    if (unary.operator.type() != TokenType.MINUS) return false;
+                }
+                case Expr.Binary binary -> {
+                    switch (binary.operator.type()) {
+                        case PLUS, MINUS, STAR, SLASH -> {
+                            pending.push(binary.left);
+                            pending.push(binary.right);
+                        }
+                        default -> {
+                            return false;
+                        }
+                    }
+                }
+                case Expr.Logical logical -> {
+                    pending.push(logical.left);
+                    pending.push(logical.right);
+                }
+                case Expr.Grouping grouping -> pending.push(grouping.expression);
+                case Expr.Assign assign -> pending.push(assign.value);
+                case Expr.Variable variable -> {
+                    final var local = reads.get(variable);
+                    if (local == null || !local.number) return false;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * The element-wise arithmetic and reductions behind {@link LoxVector}. Operators are {@code PLUS}, {@code MINUS},
+ * {@code STAR} and {@code SLASH}; a number on either side of an operator is applied to every element.
+ */
+interface VectorKernels {
+    /**
+     * The implementation for this JVM: SIMD lanes when the {@code jdk.incubator.vector} module has been added and
+     * {@code lox.simd} is not {@code false}, plain loops otherwise.
+     */
+    VectorKernels INSTANCE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !"false".equals(System.getProperty("lox.simd"))
+            ? new SimdKernels() : new ScalarKernels();
+
+    void apply(TokenType operator, double[] left, double[] right, double[] result);
+
+    void apply(TokenType operator, double[] left, double right, double[] result);
+
+    void apply(TokenType operator, double left, double[] right, double[] result);
+
+    double sum(double[] values);
+
+    /**
+     * @param values At least one value.
+     */
+    double min(double[] values);
+
+    /**
+     * @param values At least one value.
+     */
+    double max(double[] values);
+}
@@ -0,0 +1,49 @@
+package org.craftinginterpreters.lox;
+
+/**
+ * A vector's {@code sum}, {@code min} or {@code max} method, read off the vector as a value.
+ */
+final class VectorMethod implements LoxCallable {
+    enum Kind {
+        SUM, MIN, MAX
+    }
+
+    private final LoxVector vector;
+    private final Kind kind;
+    private final Token name;
+
+    /**
+     * @param vector The vector the method reduces.
+     * @param kind   Which method it is.
+     * @param name   The property token the method was read through, used to report errors.
+     */
+    VectorMethod(final LoxVector vector, final Kind kind, final Token name) {
+        this.vector = vector;
+        this.kind = kind;
+        this.name = name;
+    }
+
+    @Override
+    public int arity() {
+        return 0;
+    }
+
+    @Override
+    public Object call(final Interpreter interpreter, final Object[] arguments) {
+        final var values = vector.values;
+        if (kind != Kind.SUM && values.length == 0) {
+            throw new RuntimeError(name, "Can't take the %s of an empty vector.".formatted(name.lexeme()));
+        }
+        interpreter.memory.allocate(name, MemoryBudget.NUMBER_BYTES);
+        return switch (kind) {
+            case SUM -> VectorKernels.INSTANCE.sum(values);
+            case MIN -> VectorKernels.INSTANCE.min(values);
+            case MAX -> VectorKernels.INSTANCE.max(values);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
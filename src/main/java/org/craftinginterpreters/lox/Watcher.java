@@ -0,0 +1,208 @@
+package org.craftinginterpreters.lox;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Runs scripts, then runs each again whenever it is saved, until interrupted.
+ * Each script is kept parsed by an {@link IncrementalParser}: a save is turned into the one edit that replaces the text
+ * between the unchanged start and end of the file, so only the declarations around the change are scanned and parsed
+ * again. A save that leaves the text as it was is not run again.
+ * Editors often write a file several times per save, so after the first file event the watcher waits until no more
+ * have arrived for the debounce interval and then runs each changed script once, in the order they first changed.
+ * Every run gets a fresh interpreter, so nothing is left over from the run before.
+ */
+final class Watcher {
+    private static final String EXTENSION = ".lox";
+
+    private final List<Path> paths;
+    private final boolean stackSafe;
+    private final Supplier<Interpreter> interpreters;
+    private final ModuleLoader modules;
+    private final Duration debounce;
+    private final PrintStream err;
+    private final Map<Path, IncrementalParser> scripts = new HashMap<>();
+
+    /**
+     * @param paths        Lox files, and directories whose {@code .lox} files, at any depth, are watched.
+     * @param stackSafe    Parse expressions with explicit heap stacks rather than recursive descent.
+     * @param interpreters Creates the interpreter for each run.
+     * @param modules      Loads the modules the scripts import.
+     * @param debounce     How long to wait after a file event for more before running the changed scripts.
+     * @param err          Where to print which script is running and its errors.
+     */
+    Watcher(final List<Path> paths, final boolean stackSafe, final Supplier<Interpreter> interpreters,
+            final ModuleLoader modules, final Duration debounce, final PrintStream err) {
+        this.paths = paths.stream().map(path -> path.toAbsolutePath().normalize()).toList();
+        this.stackSafe = stackSafe;
+        this.interpreters = interpreters;
+        this.modules = modules;
+        this.debounce = debounce;
+        this.err = err;
+    }
+
+    /**
+     * Run every script, then watch them until the thread is interrupted.
+     *
+     * @throws IOException Error listing a directory.
+     */
+    void watch() throws IOException {
+        try (var service = FileSystems.getDefault().newWatchService()) {
+            final var initial = new ArrayList<Path>();
+            for (final var path : paths) {
+                if (Files.isDirectory(path)) {
+                    register(service, path);
+                    try (Stream<Path> tree = Files.walk(path)) {
+                        tree.filter(file -> isScript(file) && Files.isRegularFile(file)).sorted().forEach(initial::add);
+                    }
+                } else {
+                    path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    initial.add(path);
+                }
+            }
+            initial.forEach(this::run);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                for (final var changed : awaitChanges(service)) {
+                    if (Files.isDirectory(changed)) {
+                        if (isInWatchedDirectory(changed)) register(service, changed);
+                    } else if (isWatched(changed)) {
+                        run(changed);
+                    }
+                }
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for a file event, then for the burst it starts to die down.
+     *
+     * @return The paths that changed, in the order they first changed.
+     * @throws InterruptedException The thread was interrupted while waiting.
+     */
+    Set<Path> awaitChanges(final WatchService service) throws InterruptedException {
+        final var changed = new LinkedHashSet<Path>();
+        for (var key = service.take(); key != null; key = service.poll(debounce.toNanos(), TimeUnit.NANOSECONDS)) {
+            final var directory = (Path) key.watchable();
+            for (final var event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost, so anything may have changed.
+                    changed.addAll(scripts.keySet());
+                } else {
+                    changed.add(directory.resolve((Path) ((WatchEvent<?>) event).context()));
+                }
+            }
+            key.reset();
+        }
+        return changed;
+    }
+
+    /**
+     * Bring a script's syntax tree up to date with its file and, if its text changed, run it.
+     */
+    void run(final Path file) {
+        final String source;
+        try {
+            source = Files.readString(file, Charset.defaultCharset());
+        } catch (final NoSuchFileException e) {
+            scripts.remove(file);
+            return;
+        } catch (final IOException e) {
+            err.println("Could not read " + file + ": " + e.getMessage());
+            return;
+        }
+        if (!reload(file, source)) return;
+
+        err.println("--- " + file);
+        final var script = scripts.get(file);
+        if (!script.diagnostics().isEmpty()) {
+            script.diagnostics().forEach(err::println);
+            return;
+        }
+        final var statements = script.statements();
+        final var interpreter = interpreters.get();
+        final var diagnostics = new Diagnostics();
+        modules.load(statements, file.getParent(), diagnostics);
+        if (!diagnostics.hadError()) new Resolver(interpreter, diagnostics).resolve(statements);
+        if (!diagnostics.hadError()) {
+            new TypeInference().infer(statements);
+            interpreter.interpret(statements, diagnostics);
+        }
+        diagnostics.flush(err);
+    }
+
+    /**
+     * @return Whether the text differs from what was parsed before.
+     */
+    boolean reload(final Path file, final String source) {
+        final var script = scripts.get(file);
+        if (script == null) {
+            scripts.put(file, new IncrementalParser(source, stackSafe));
+            return true;
+        }
+
+        final var old = script.source();
+        final var shorter = Math.min(old.length(), source.length());
+        var prefix = 0;
+        while (prefix < shorter && old.charAt(prefix) == source.charAt(prefix)) prefix++;
+        if (prefix == old.length() && prefix == source.length()) return false;
+        var suffix = 0;
+        while (suffix < shorter - prefix
+                && old.charAt(old.length() - 1 - suffix) == source.charAt(source.length() - 1 - suffix)) {
+            suffix++;
+        }
+        script.edit(prefix, old.length() - prefix - suffix, source.substring(prefix, source.length() - suffix));
+        return true;
+    }
+
+    /**
+     * The parsed form of a script that has been run, or null.
+     */
+    IncrementalParser script(final Path file) {
+        return scripts.get(file);
+    }
+
+    private void register(final WatchService service, final Path directory) throws IOException {
+        try (Stream<Path> tree = Files.walk(directory)) {
+            for (final var subdirectory : (Iterable<Path>) tree.filter(Files::isDirectory)::iterator) {
+                subdirectory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private boolean isWatched(final Path file) {
+        return paths.contains(file) || (isScript(file) && isInWatchedDirectory(file));
+    }
+
+    private boolean isInWatchedDirectory(final Path path) {
+        return paths.stream().anyMatch(watched -> !watched.equals(path) && path.startsWith(watched)
+                && Files.isDirectory(watched));
+    }
+
+    private static boolean isScript(final Path file) {
+        return file.getFileName().toString().endsWith(EXTENSION);
+    }
+}
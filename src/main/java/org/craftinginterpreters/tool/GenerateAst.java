@@ -10,29 +10,58 @@ import java.util.Locale;
 public class GenerateAst {
     /**
      * Generates the abstract syntax tree code.
-     * Expects one argument - the full path to 'src/main/java/org/craftinginterpreters/lox'.
+     * Expects the full path to 'src/main/java/org/craftinginterpreters/lox', optionally followed by '--records'.
+     * By default each base type is a sealed abstract class whose node classes are final and have final fields.
+     * Fields after a '|' in a node's spec are runtime fields instead: mutable, left out of the constructor and filled
+     * in after parsing by the resolver and interpreter, so per-node state needs no side table. Only the nodes that
+     * need runtime state declare any, keeping every other node as small as its syntax.
+     * With '--records' each base type is a sealed interface and its nodes are records instead, which cannot have
+     * runtime fields, so those are left out.
+     * Either way the hierarchy is closed, so a switch over its node types is checked for exhaustiveness.
      *
      * @param args arguments passed from the commandline.
      * @throws IOException due to issue generating file.
      */
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.err.println("Usage: generate_ast < output directory");
+        if (args.length < 1 || args.length > 2 || args.length == 2 && !args[1].equals("--records")) {
+            System.err.println("Usage: generate_ast <output directory> [--records]");
             System.exit(64);
         }
         final var outputDir = args[0];
+        final var records = args.length == 2;
 
         defineAst(outputDir, "Expr", List.of(
-                "Binary   : Expr left, Token operator, Expr right",
+                "Assign   : Token name, Expr value | Slot slot",
+                "Binary   : Expr left, Token operator, Expr right | boolean numeric",
+                "Call     : Expr callee, Token paren, List<Expr> arguments | CallSite site",
+                "Get      : Expr object, Token name | PropertySite site",
                 "Grouping : Expr expression",
+                "Index    : Expr object, Token bracket, Expr index",
+                "IndexSet : Expr object, Token bracket, Expr index, Expr value",
+                "ListLiteral : Token bracket, List<Expr> elements",
                 "Literal  : Object value",
-                "Unary    : Token operator, Expr right"
-        ));
+                "Logical  : Expr left, Token operator, Expr right | BranchProfile profile",
+                "MapLiteral : Token brace, List<Expr> keys, List<Expr> values",
+                "Set      : Expr object, Token name, Expr value | PropertySite site",
+                "Super    : Token keyword, Token method | Slot slot",
+                "This     : Token keyword | Slot slot",
+                "Unary    : Token operator, Expr right | boolean numeric",
+                "Variable : Token name | Slot slot"
+        ), records);
 
         defineAst(outputDir, "Stmt", List.of(
+                "Block      : List<Stmt> statements | int scopeSize",
+                "Class      : Token name, Expr.Variable superclass, List<Stmt.Function> methods | Slot slot",
                 "Expression : Expr expression",
-                "Print      : Expr expression"
-        ));
+                "Function   : Token name, List<Token> params, List<Stmt> body"
+                        + " | Slot slot, int frameSize, boolean poolFrames",
+                "If         : Expr condition, Stmt thenBranch, Stmt elseBranch",
+                "Import     : Token keyword, Token path | Module module",
+                "Print      : Expr expression",
+                "Return     : Token keyword, Expr value | Expr.Call tailCall",
+                "Var        : Token name, Expr initializer | Slot slot",
+                "While      : Expr condition, Stmt body | LoopState loop"
+        ), records);
 
         System.out.println("Expr.java generated successfully: " + outputDir + "/Expr.java");
         System.exit(0);
@@ -40,13 +69,21 @@ public class GenerateAst {
 
     private static void defineAst(final String outputDir,
                                   final String baseName,
-                                  final List<String> types) throws IOException {
+                                  final List<String> types,
+                                  final boolean records) throws IOException {
         final var path = "%s/%s.java".formatted(outputDir, baseName);
         try (var writer = new PrintWriter(path, StandardCharsets.UTF_8)) {
             writer.println("// This file is autogenerated by src/main/java/org/craftinginterpreters/tool/GenerateAst.java. Do not edit by hand!");
             writer.println("package org.craftinginterpreters.lox;");
             writer.println();
-            writer.printf("abstract class %s {%n", baseName);
+            writer.println("import java.util.List;");
+            writer.println();
+            // Nodes are declared in the same file, so the sealed type needs no permits clause.
+            if (records) {
+                writer.printf("sealed interface %s {%n", baseName);
+            } else {
+                writer.printf("abstract sealed class %s {%n", baseName);
+            }
 
             defineVisitor(writer, baseName, types);
 
@@ -54,12 +91,21 @@ public class GenerateAst {
                     .map(type -> type.split(":"))
                     .forEach(parts -> {
                         final var className = parts[0].trim();
-                        final var fields = parts[1].trim();
-                        defineType(writer, baseName, className, fields);
+                        final var fields = parts[1].split("\\|");
+                        final var runtimeFields = fields.length > 1 ? fields[1].trim() : "";
+                        if (records) {
+                            defineRecord(writer, baseName, className, fields[0].trim());
+                        } else {
+                            defineType(writer, baseName, className, fields[0].trim(), runtimeFields);
+                        }
                     });
 
             // The base accept() method.
-            writer.println("    abstract <R> R accept(final Visitor<R> visitor);");
+            if (records) {
+                writer.println("    <R> R accept(final Visitor<R> visitor);");
+            } else {
+                writer.println("    abstract <R> R accept(final Visitor<R> visitor);");
+            }
 
             writer.println("}");
             writer.println();
@@ -87,8 +133,9 @@ public class GenerateAst {
     private static void defineType(final PrintWriter writer,
                                    final String baseName,
                                    final String className,
-                                   final String fieldsList) {
-        writer.printf("    static class %s extends %s {%n", className, baseName);
+                                   final String fieldsList,
+                                   final String runtimeFieldsList) {
+        writer.printf("    static final class %s extends %s {%n", className, baseName);
 
         // Constructor
         writer.printf("        %s(final %s) {%n", className, fieldsList);
@@ -112,6 +159,29 @@ public class GenerateAst {
         writer.println();
         Arrays.stream(fields).forEach(field -> writer.printf("        final %s;%n", field));
 
+        // Runtime fields
+        if (!runtimeFieldsList.isEmpty()) {
+            writer.println();
+            writer.println("        // Runtime state, filled in after parsing.");
+            Arrays.stream(runtimeFieldsList.split(", ")).forEach(field -> writer.printf("        %s;%n", field));
+        }
+
+        writer.println("    }");
+        writer.println();
+    }
+
+    private static void defineRecord(final PrintWriter writer,
+                                     final String baseName,
+                                     final String className,
+                                     final String fieldsList) {
+        writer.printf("    record %s(%s) implements %s {%n", className, fieldsList, baseName);
+
+        // Visitor pattern.
+        writer.println("        @Override");
+        writer.println("        public <R> R accept(final Visitor<R> visitor) {");
+        writer.println("            return visitor.visit" + className + baseName + "(this);");
+        writer.println("        }");
+
         writer.println("    }");
         writer.println();
     }
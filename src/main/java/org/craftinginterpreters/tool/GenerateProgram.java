@@ -0,0 +1,362 @@
+package org.craftinginterpreters.tool;
+
+import org.craftinginterpreters.lox.TokenType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.craftinginterpreters.lox.TokenType.*;
+
+/**
+ * Generates valid Lox programs of a configurable size and shape together with the output they must print.
+ * Generation is deterministic for a given seed, so a program can be regenerated instead of stored, and the expected
+ * output makes every program a differential test of the scanner, parser and interpreter.
+ */
+public class GenerateProgram {
+    /**
+     * The kinds of literal a program may contain.
+     */
+    public enum LiteralType {
+        NUMBER,
+        STRING,
+        BOOLEAN,
+        NIL
+    }
+
+    /**
+     * The size and shape of the generated program.
+     *
+     * @param seed            Seed for the random source, the same options always generate the same program.
+     * @param statements      Number of statements to generate.
+     * @param maxDepth        Maximum nesting depth of each statement's expression.
+     * @param operators       Operators that may appear: any of {@code PLUS, MINUS, STAR, SLASH, GREATER, GREATER_EQUAL,
+     *                        LESS, LESS_EQUAL, EQUAL_EQUAL, BANG_EQUAL, BANG}. {@code MINUS} also enables negation.
+     * @param literals        Literal types that may appear, at least one is required.
+     * @param commentDensity  Probability between 0 and 1 of a comment line before each statement.
+     * @param maxStringLength Maximum number of characters in a string literal.
+     */
+    public record Options(long seed,
+                          long statements,
+                          int maxDepth,
+                          Set<TokenType> operators,
+                          Set<LiteralType> literals,
+                          double commentDensity,
+                          int maxStringLength) {
+        public Options {
+            if (literals.isEmpty()) {
+                throw new IllegalArgumentException("At least one literal type is required.");
+            }
+            if (!OPERATORS.containsAll(operators)) {
+                throw new IllegalArgumentException("Unsupported operators: " + operators);
+            }
+            operators = Set.copyOf(operators);
+            literals = Set.copyOf(literals);
+        }
+
+        /**
+         * Every operator and literal type, with moderate depth and comments.
+         */
+        public static Options defaults(final long seed, final long statements) {
+            return new Options(seed, statements, 6, OPERATORS, EnumSet.allOf(LiteralType.class), 0.1, 16);
+        }
+    }
+
+    private static final Set<TokenType> OPERATORS = EnumSet.of(
+            PLUS, MINUS, STAR, SLASH, GREATER, GREATER_EQUAL, LESS, LESS_EQUAL, EQUAL_EQUAL, BANG_EQUAL, BANG);
+    private static final String STRING_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+    /**
+     * A generated expression: its source text and the value Lox evaluates it to.
+     */
+    private record Generated(String text, Object value) {
+    }
+
+    private final Options options;
+    private final Random random;
+    private final List<TokenType> arithmetic = new ArrayList<>();
+    private final List<TokenType> comparisons = new ArrayList<>();
+    private final List<TokenType> equalities = new ArrayList<>();
+    private final List<LiteralType> valueTypes = new ArrayList<>();
+    private final List<LiteralType> literalTypes = new ArrayList<>();
+
+    public GenerateProgram(final Options options) {
+        this.options = options;
+        this.random = new Random(options.seed());
+        for (final var operator : List.of(PLUS, MINUS, STAR, SLASH)) {
+            if (options.operators().contains(operator)) arithmetic.add(operator);
+        }
+        for (final var operator : List.of(GREATER, GREATER_EQUAL, LESS, LESS_EQUAL)) {
+            if (options.operators().contains(operator)) comparisons.add(operator);
+        }
+        for (final var operator : List.of(EQUAL_EQUAL, BANG_EQUAL)) {
+            if (options.operators().contains(operator)) equalities.add(operator);
+        }
+        for (final var type : LiteralType.values()) {
+            if (canGenerate(type)) valueTypes.add(type);
+            if (options.literals().contains(type)) literalTypes.add(type);
+        }
+    }
+
+    /**
+     * Generates a program and the output it prints.
+     * Expects two or three arguments - the program file, the expected output file and optionally the seed.
+     * The number of statements is read from the {@code statements} system property.
+     *
+     * @param args arguments passed from the commandline.
+     * @throws IOException due to issue writing the files.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: generate_program <program.lox> <expected output> [seed]");
+            System.exit(64);
+        }
+        final var seed = args.length == 3 ? Long.parseLong(args[2]) : 0;
+        final var options = Options.defaults(seed, Long.getLong("statements", 1_000));
+
+        try (BufferedWriter program = Files.newBufferedWriter(Path.of(args[0]), StandardCharsets.UTF_8);
+             BufferedWriter expected = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            new GenerateProgram(options).generate(program, expected);
+        }
+
+        System.out.println("Program generated successfully: " + args[0]);
+        System.exit(0);
+    }
+
+    /**
+     * Write the program, one statement at a time so arbitrarily large programs never need to fit in memory.
+     *
+     * @param program  Where to write the Lox source.
+     * @param expected Where to write the output the program must print.
+     * @throws IOException Error writing either output.
+     */
+    public void generate(final Appendable program, final Appendable expected) throws IOException {
+        for (long i = 0; i < options.statements(); i++) {
+            if (random.nextDouble() < options.commentDensity()) {
+                program.append(comment()).append('\n');
+            }
+
+            final var expression = expression(pick(valueTypes), options.maxDepth());
+            if (random.nextInt(5) == 0) {
+                program.append(expression.text()).append(";\n");
+            } else {
+                program.append("print ").append(expression.text()).append(";\n");
+                expected.append(stringify(expression.value())).append('\n');
+            }
+        }
+    }
+
+    private boolean canGenerate(final LiteralType type) {
+        final var literals = options.literals();
+        return switch (type) {
+            case NUMBER -> literals.contains(LiteralType.NUMBER);
+            case STRING -> literals.contains(LiteralType.STRING);
+            case NIL -> literals.contains(LiteralType.NIL);
+            case BOOLEAN -> literals.contains(LiteralType.BOOLEAN)
+                    || options.operators().contains(BANG)
+                    || !equalities.isEmpty()
+                    || (!comparisons.isEmpty() && literals.contains(LiteralType.NUMBER));
+        };
+    }
+
+    private Generated expression(final LiteralType type, final int depth) {
+        if (depth <= 0 || random.nextInt(4) == 0) {
+            final var literal = literal(type);
+            if (literal != null) return literal;
+        }
+
+        return switch (type) {
+            case NUMBER -> number(depth);
+            case STRING -> string(depth);
+            case BOOLEAN -> bool(depth);
+            case NIL -> literal(type);
+        };
+    }
+
+    private Generated number(final int depth) {
+        final var negate = options.operators().contains(MINUS) && random.nextInt(6) == 0;
+        if (arithmetic.isEmpty() || negate) {
+            if (!negate) return literal(LiteralType.NUMBER);
+            final var operand = expression(LiteralType.NUMBER, depth - 1);
+            return new Generated("-" + operand.text(), -(double) operand.value());
+        }
+
+        var operator = pick(arithmetic);
+        final var left = expression(LiteralType.NUMBER, depth - 1);
+        final var right = expression(LiteralType.NUMBER, depth - 1);
+        final var a = (double) left.value();
+        final var b = (double) right.value();
+        if (operator == SLASH && b == 0) {
+            // Keep the program free of runtime errors.
+            operator = arithmetic.contains(STAR) ? STAR : PLUS;
+            if (!arithmetic.contains(operator)) return left;
+        }
+
+        final double value = switch (operator) {
+            case PLUS -> a + b;
+            case MINUS -> a - b;
+            case STAR -> a * b;
+            case SLASH -> a / b;
+            default -> throw new IllegalStateException(operator.name());
+        };
+        return binary(left, operator, right, value);
+    }
+
+    private Generated string(final int depth) {
+        if (!options.operators().contains(PLUS)) return literal(LiteralType.STRING);
+
+        final var left = expression(LiteralType.STRING, depth - 1);
+        final var right = expression(LiteralType.STRING, depth - 1);
+        return binary(left, PLUS, right, (String) left.value() + right.value());
+    }
+
+    private Generated bool(final int depth) {
+        final var choices = new ArrayList<Integer>(3);
+        if (options.operators().contains(BANG)) choices.add(0);
+        if (!equalities.isEmpty()) choices.add(1);
+        if (!comparisons.isEmpty() && canGenerate(LiteralType.NUMBER)) choices.add(2);
+        if (choices.isEmpty()) return literal(LiteralType.BOOLEAN);
+
+        switch (pick(choices)) {
+            case 0 -> {
+                final var operand = expression(operandType(depth), depth - 1);
+                return new Generated("!" + operand.text(), !isTruthy(operand.value()));
+            }
+            case 1 -> {
+                final var operator = pick(equalities);
+                final var left = expression(operandType(depth), depth - 1);
+                final var right = expression(random.nextBoolean() ? operandType(depth) : typeOf(left.value()), depth - 1);
+                final var equal = isEqual(left.value(), right.value());
+                return binary(left, operator, right, operator == EQUAL_EQUAL ? equal : !equal);
+            }
+            default -> {
+                final var operator = pick(comparisons);
+                final var left = expression(LiteralType.NUMBER, depth - 1);
+                final var right = expression(LiteralType.NUMBER, depth - 1);
+                final var a = (double) left.value();
+                final var b = (double) right.value();
+                final boolean value = switch (operator) {
+                    case GREATER -> a > b;
+                    case GREATER_EQUAL -> a >= b;
+                    case LESS -> a < b;
+                    case LESS_EQUAL -> a <= b;
+                    default -> throw new IllegalStateException(operator.name());
+                };
+                return binary(left, operator, right, value);
+            }
+        }
+    }
+
+    /**
+     * Every binary expression is parenthesized, so the tree does not depend on precedence or associativity.
+     */
+    private static Generated binary(final Generated left, final TokenType operator, final Generated right, final Object value) {
+        return new Generated("(%s %s %s)".formatted(left.text(), lexeme(operator), right.text()), value);
+    }
+
+    /**
+     * A literal of the given type, or null when literals of that type are disabled.
+     */
+    private Generated literal(final LiteralType type) {
+        if (!options.literals().contains(type)) return null;
+
+        return switch (type) {
+            case NUMBER -> {
+                final var text = random.nextInt(4) == 0
+                        ? "%d.%d".formatted(random.nextInt(1_000), random.nextInt(100))
+                        : Integer.toString(random.nextInt(1_000));
+                yield new Generated(text, Double.parseDouble(text));
+            }
+            case STRING -> {
+                final var value = randomText(random.nextInt(options.maxStringLength() + 1));
+                yield new Generated('"' + value + '"', value);
+            }
+            case BOOLEAN -> {
+                final var value = random.nextBoolean();
+                yield new Generated(Boolean.toString(value), value);
+            }
+            case NIL -> new Generated("nil", null);
+        };
+    }
+
+    private String comment() {
+        final var text = randomText(1 + random.nextInt(40));
+        // Block comments stay on one line: the scanner does not count newlines inside them.
+        return random.nextBoolean() ? "// " + text : "/* " + text + " */";
+    }
+
+    private String randomText(final int length) {
+        final var builder = new StringBuilder(length);
+        for (var i = 0; i < length; i++) {
+            builder.append(STRING_CHARACTERS.charAt(random.nextInt(STRING_CHARACTERS.length())));
+        }
+        return builder.toString();
+    }
+
+    private <T> T pick(final List<T> choices) {
+        return choices.get(random.nextInt(choices.size()));
+    }
+
+    /**
+     * Any type at all while there is depth left, afterwards only types that can end in a literal.
+     */
+    private LiteralType operandType(final int depth) {
+        return depth > 1 ? pick(valueTypes) : pick(literalTypes);
+    }
+
+    private LiteralType typeOf(final Object value) {
+        if (value == null) return LiteralType.NIL;
+        if (value instanceof Double) return LiteralType.NUMBER;
+        if (value instanceof String) return LiteralType.STRING;
+        return LiteralType.BOOLEAN;
+    }
+
+    private static String lexeme(final TokenType operator) {
+        return switch (operator) {
+            case PLUS -> "+";
+            case MINUS -> "-";
+            case STAR -> "*";
+            case SLASH -> "/";
+            case GREATER -> ">";
+            case GREATER_EQUAL -> ">=";
+            case LESS -> "<";
+            case LESS_EQUAL -> "<=";
+            case EQUAL_EQUAL -> "==";
+            case BANG_EQUAL -> "!=";
+            default -> throw new IllegalArgumentException(operator.name());
+        };
+    }
+
+    // The following mirror the interpreter's semantics so expected output can be computed without running it.
+
+    private static boolean isTruthy(final Object object) {
+        if (object == null) return false;
+        if (object instanceof Boolean) return (boolean) object;
+        return true;
+    }
+
+    private static boolean isEqual(final Object a, final Object b) {
+        if (a == null && b == null) return true;
+        if (a == null) return false;
+        return a.equals(b);
+    }
+
+    private static String stringify(final Object object) {
+        if (object == null) return "nil";
+        if (object instanceof Double) {
+            var text = object.toString();
+            if (text.endsWith(".0")) {
+                text = text.substring(0, text.length() - 2);
+            }
+            return text;
+        }
+        return object.toString();
+    }
+}
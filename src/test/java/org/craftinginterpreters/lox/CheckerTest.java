@@ -0,0 +1,60 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckerTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void checksEveryLoxFileInATreeWithoutRunningThem() throws IOException {
+        // Given
+        Files.createDirectories(root.resolve("b"));
+        Files.writeString(root.resolve("a.lox"), "print 1;\nvar = 2;\nprint (3;\n");
+        Files.writeString(root.resolve("b/c.lox"), "print \"never printed\";\n");
+        Files.writeString(root.resolve("b/d.lox"), "print 4 +;\n");
+        Files.writeString(root.resolve("b/notes.txt"), "not lox (");
+        final var output = new ByteArrayOutputStream();
+
+        // When
+        final var results = new Checker(false).check(List.of(root));
+        final var failed = Checker.report(results, new PrintStream(output));
+
+        // Then
+        assertEquals(List.of(root.resolve("a.lox"), root.resolve("b/c.lox"), root.resolve("b/d.lox")),
+                results.stream().map(Checker.Result::path).toList());
+        assertTrue(failed);
+        assertEquals(String.join(System.lineSeparator(),
+                root.resolve("a.lox") + ": [line 2] Error  at '=': Expect variable name.",
+                root.resolve("a.lox") + ": [line 3] Error  at ';': Expect ')' after expression.",
+                root.resolve("b/d.lox") + ": [line 1] Error  at ';': Expect expression",
+                ""), output.toString());
+    }
+
+    @Test
+    void validFilesReportNothing() throws IOException {
+        // Given
+        final var file = root.resolve("valid.lox");
+        Files.writeString(file, "fun f(n) { return n * 2; }\nprint f(21);\n");
+        final var output = new ByteArrayOutputStream();
+
+        // When
+        final var failed = Checker.report(new Checker(true).check(List.of(file)), new PrintStream(output));
+
+        // Then
+        assertFalse(failed);
+        assertEquals("", output.toString());
+    }
+}
@@ -0,0 +1,80 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instance-heavy workloads: allocating small objects, reading and writing their fields and calling their methods.
+ * The shapes parameter sets how many classes flow through the same property and call sites, from monomorphic
+ * through polymorphic to megamorphic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassBenchmark {
+    private static final int ITERATIONS = 10_000;
+
+    @Param({"1", "4", "8"})
+    public int shapes;
+
+    private Interpreter interpreter;
+    private List<Stmt> program;
+
+    @Setup
+    public void setup() {
+        final var source = new StringBuilder("""
+                class Vector {
+                    init(x, y) {
+                        this.x = x;
+                        this.y = y;
+                    }
+                    plus(other) { return Vector(this.x + other.x, this.y + other.y); }
+                    length() { return this.x + this.y; }
+                }
+                """);
+        for (var i = 1; i < shapes; i++) {
+            source.append("class Vector%d < Vector { init(x, y) { this.tag%d = 0; super.init(x, y); } }\n".formatted(i, i));
+        }
+        source.append("fun make(n, x, y) {\n");
+        for (var i = 1; i < shapes; i++) {
+            source.append("    if (n == %d) return Vector%d(x, y);\n".formatted(i, i));
+        }
+        source.append("""
+                    return Vector(x, y);
+                }
+                fun run(n, kind, total) {
+                    if (n == 0) return total;
+                    var v = make(kind, n, 1).plus(make(0, 1, n));
+                    v.x = v.x - 1;
+                    var next = kind + 1;
+                    if (next == %d) next = 0;
+                    return run(n - 1, next, total + v.length());
+                }
+                run(%d, 0, 0);
+                """.formatted(shapes, ITERATIONS));
+
+        interpreter = new Interpreter();
+        program = new Parser(new Scanner(source.toString()).scanTokens()).parse();
+        new Resolver(interpreter).resolve(program);
+    }
+
+    @Benchmark
+    public void instances() {
+        interpreter.interpret(program);
+    }
+}
@@ -0,0 +1,79 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporting many syntax and runtime errors: each parse gives up at its first syntax error, and each run unwinds a
+ * runtime error through twenty Lox calls. Errors go to a private sink that is written to a discarding stream, so what
+ * is measured is raising, reporting and printing them rather than the terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiagnosticsBenchmark {
+    private List<List<Token>> syntaxErrors;
+    private List<List<Stmt>> runtimeErrors;
+    private Interpreter interpreter;
+    private final Diagnostics diagnostics = new Diagnostics();
+    private final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+    @Setup
+    public void setup() {
+        syntaxErrors = new ArrayList<>();
+        for (var i = 0; i < 1000; i++) {
+            syntaxErrors.add(new Scanner("var a = 1;\nprint (a + (2 * (3 - ;\n").scanTokens());
+        }
+        interpreter = new Interpreter();
+        runtimeErrors = new ArrayList<>();
+        for (var i = 0; i < 1000; i++) {
+            final var program = new Parser(new Scanner("""
+                    fun f(n) { if (n == 0) return -"x"; return f(n - 1); }
+                    f(20);
+                    """).scanTokens()).parse();
+            new Resolver(interpreter).resolve(program);
+            runtimeErrors.add(program);
+        }
+    }
+
+    @Benchmark
+    public int parseErrors() {
+        var failed = 0;
+        for (final var tokens : syntaxErrors) {
+            try {
+                new Parser(tokens, false, false, diagnostics).parse();
+            } catch (final RuntimeException error) {
+                failed++;
+            }
+            diagnostics.flush(discard);
+        }
+        diagnostics.reset();
+        return failed;
+    }
+
+    @Benchmark
+    public void runtimeErrors() {
+        for (final var program : runtimeErrors) {
+            interpreter.interpret(program, diagnostics);
+            diagnostics.flush(discard);
+        }
+        diagnostics.reset();
+    }
+}
@@ -0,0 +1,77 @@
+package org.craftinginterpreters.lox;
+
+import org.craftinginterpreters.tool.GenerateProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs generated programs and compares what they print with the output predicted by the generator.
+ */
+class DifferentialTest {
+    private enum Variant {
+        VISITOR, STACK_SAFE, SWITCH, TYPED
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 42, 1337})
+    void generatedProgramsPrintTheExpectedOutput(final long seed) throws IOException {
+        // Given
+        final var options = GenerateProgram.Options.defaults(seed, 500);
+
+        // When / Then
+        for (final var variant : Variant.values()) {
+            assertProgramPrintsExpectedOutput(options, variant);
+        }
+    }
+
+    @Test
+    void generatedNumericProgramsPrintTheExpectedOutput() throws IOException {
+        // Given
+        final var options = new GenerateProgram.Options(7, 500, 10,
+                EnumSet.of(TokenType.PLUS, TokenType.MINUS, TokenType.STAR, TokenType.SLASH, TokenType.LESS),
+                EnumSet.of(GenerateProgram.LiteralType.NUMBER), 0.5, 0);
+
+        // When / Then
+        for (final var variant : Variant.values()) {
+            assertProgramPrintsExpectedOutput(options, variant);
+        }
+    }
+
+    private static void assertProgramPrintsExpectedOutput(final GenerateProgram.Options options,
+                                                          final Variant variant) throws IOException {
+        final var program = new StringBuilder();
+        final var expected = new StringBuilder();
+        new GenerateProgram(options).generate(program, expected);
+
+        final var output = new ByteArrayOutputStream();
+        final var originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            final var tokens = new Scanner(program.toString()).scanTokens();
+            final var stackSafe = variant == Variant.STACK_SAFE;
+            final var interpreter = switch (variant) {
+                case VISITOR, TYPED -> new Interpreter();
+                case STACK_SAFE -> new StackSafeInterpreter(MemoryBudget.UNLIMITED);
+                case SWITCH -> new SwitchInterpreter(MemoryBudget.UNLIMITED, Interpreter.DEFAULT_OSR_THRESHOLD);
+            };
+            final var statements = new Parser(tokens, stackSafe).parse();
+            if (variant == Variant.TYPED) {
+                new Resolver(interpreter).resolve(statements);
+                new TypeInference().infer(statements);
+            }
+            interpreter.interpret(statements);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertEquals(expected.toString(), output.toString());
+    }
+}
@@ -0,0 +1,77 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Visitor double dispatch against a pattern-matching switch, on programs that run entirely in the tree-walking tier:
+ * recursive calls, and a loop mixing arithmetic, comparisons, logical operators and variable access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+    private static final String FIB = """
+            fun fib(n) {
+                if (n < 2) return n;
+                return fib(n - 1) + fib(n - 2);
+            }
+            var result = fib(22);
+            """;
+
+    private static final String LOOP = """
+            var total = 0;
+            for (var i = 0; i < 100000; i = i + 1) {
+                var x = (i * 3 + 1) - i / 2;
+                if (x > 1000 and !(x == 5000) or i < 10) total = total + 1;
+                else total = total - 1;
+            }
+            """;
+
+    @Param({"visitor", "switch"})
+    public String dispatch;
+
+    private Interpreter interpreter;
+    private List<Stmt> fib;
+    private List<Stmt> loop;
+
+    @Setup
+    public void setup() {
+        interpreter = dispatch.equals("switch")
+                ? new SwitchInterpreter(MemoryBudget.UNLIMITED, Interpreter.NEVER_COMPILE)
+                : new Interpreter(MemoryBudget.UNLIMITED, Interpreter.NEVER_COMPILE);
+        fib = parse(FIB);
+        loop = parse(LOOP);
+    }
+
+    private List<Stmt> parse(final String source) {
+        final var program = new Parser(new Scanner(source).scanTokens()).parse();
+        new Resolver(interpreter).resolve(program);
+        return program;
+    }
+
+    @Benchmark
+    public void fib() {
+        interpreter.interpret(fib);
+    }
+
+    @Benchmark
+    public void loop() {
+        interpreter.interpret(loop);
+    }
+}
@@ -0,0 +1,72 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive Fibonacci, the classic measure of call overhead, run by the visitor {@link Interpreter} and by the
+ * {@link StackSafeInterpreter}, with the same function in plain Java as a lower bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FunctionBenchmark {
+    @Param({"15", "20"})
+    public int n;
+
+    private Interpreter visitor;
+    private Interpreter stackSafe;
+    private List<Stmt> program;
+
+    @Setup
+    public void setup() {
+        final var source = """
+                fun fib(n) {
+                    if (n < 2) return n;
+                    return fib(n - 2) + fib(n - 1);
+                }
+                fib(%d);
+                """.formatted(n);
+        program = new Parser(new Scanner(source).scanTokens()).parse();
+
+        visitor = new Interpreter();
+        new Resolver(visitor).resolve(program);
+        stackSafe = new StackSafeInterpreter(MemoryBudget.UNLIMITED);
+        new Resolver(stackSafe).resolve(program);
+    }
+
+    @Benchmark
+    public void visitorFib() {
+        visitor.interpret(program);
+    }
+
+    @Benchmark
+    public void stackSafeFib() {
+        stackSafe.interpret(program);
+    }
+
+    @Benchmark
+    public double javaFib() {
+        return fib(n);
+    }
+
+    private static double fib(final double n) {
+        if (n < 2) return n;
+        return fib(n - 2) + fib(n - 1);
+    }
+}
@@ -0,0 +1,63 @@
+package org.craftinginterpreters.lox;
+
+import org.craftinginterpreters.tool.GenerateProgram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bringing the syntax tree of a generated 5000-statement program up to date after typing one character in the middle
+ * of it, by scanning and parsing the whole source again or incrementally. Each incremental operation types the
+ * character and deletes it again, so it is two edits. Typing a newline moves every declaration after it to another
+ * line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalBenchmark {
+    private String source;
+    private int offset;
+    private IncrementalParser parser;
+
+    @Setup
+    public void setup() throws IOException {
+        final var program = new StringBuilder();
+        new GenerateProgram(GenerateProgram.Options.defaults(42, 5000)).generate(program, new StringBuilder());
+        source = program.toString();
+        offset = source.indexOf("print ", source.length() / 2) + "print ".length();
+        parser = new IncrementalParser(source, false);
+    }
+
+    @Benchmark
+    public List<Stmt> full() {
+        final var edited = source.substring(0, offset) + "-" + source.substring(offset);
+        final var diagnostics = new Diagnostics();
+        return new Parser(new Scanner(edited, diagnostics).scanTokens(), false, true, diagnostics).parse();
+    }
+
+    @Benchmark
+    public List<Stmt> incremental() {
+        parser.edit(offset, 0, "-");
+        return parser.edit(offset, 1, "");
+    }
+
+    @Benchmark
+    public List<Stmt> incrementalNewline() {
+        parser.edit(offset, 0, "\n");
+        return parser.edit(offset, 1, "");
+    }
+}
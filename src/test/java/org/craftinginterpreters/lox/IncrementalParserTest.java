@@ -0,0 +1,192 @@
+package org.craftinginterpreters.lox;
+
+import org.craftinginterpreters.tool.GenerateProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalParserTest {
+    private static final String PROGRAM = """
+            var a = 1;
+            fun f(n) {
+                // Doubles n.
+                return n * 2;
+            }
+            class C < B {
+                m() { print this; }
+            }
+            print f(a) + "s";
+            while (a < 10) a = a + 1;
+            a;
+            -a;
+            """;
+    private static final String[] INSERTIONS = {
+            "1", "x", " ", "\n", ";", "(", ")", "{", "}", "\"", "//", "/*", "@", "print ", "var b = 2;", "fun g() {",
+            "if (a) print a; else", "\"two\nlines\"",
+    };
+
+    @Test
+    void anEditWithinOneDeclarationParsesOnlyThatDeclaration() {
+        // Given
+        final var parser = new IncrementalParser(PROGRAM, false);
+        final var before = parser.statements();
+
+        // When
+        final var after = parser.edit(PROGRAM.indexOf("n * 2"), 1, "(n + 1)");
+
+        // Then
+        assertEquals(1, parser.reparsedDeclarations());
+        assertEquals(7, after.size());
+        assertSame(before.get(0), after.get(0));
+        assertNotSame(before.get(1), after.get(1));
+        for (var i = 2; i < after.size(); i++) {
+            assertSame(before.get(i), after.get(i));
+        }
+        assertMatchesFullParse(parser, false);
+    }
+
+    @Test
+    void anEditThatJoinsDeclarationsParsesThemAsOne() {
+        // Given
+        final var parser = new IncrementalParser(PROGRAM, false);
+
+        // When
+        final var statements = parser.edit(PROGRAM.indexOf("a;\n-a;") + 1, 1, "");
+
+        // Then
+        assertEquals(6, statements.size());
+        assertEquals(2, parser.reparsedDeclarations());
+        assertMatchesFullParse(parser, false);
+    }
+
+    @Test
+    void anEditThatAddsALineMovesTheDeclarationsAfterItDown() {
+        // Given
+        final var parser = new IncrementalParser(PROGRAM, false);
+
+        // When
+        final var statements = parser.edit(0, 0, "\n");
+
+        // Then
+        assertEquals(5, parser.rescannedTokens());
+        assertEquals(1, parser.reparsedDeclarations());
+        final var negation = (Expr.Unary) ((Stmt.Expression) statements.get(statements.size() - 1)).expression;
+        assertEquals(13, negation.operator.line());
+        assertMatchesFullParse(parser, false);
+    }
+
+    @Test
+    void anEditThatRemovesALineMovesTheDeclarationsAfterItUp() {
+        // Given
+        final var parser = new IncrementalParser(PROGRAM, false);
+
+        // When
+        final var statements = parser.edit(PROGRAM.indexOf("\n    // Doubles"), 1, "");
+
+        // Then
+        assertEquals(1, parser.reparsedDeclarations());
+        final var negation = (Expr.Unary) ((Stmt.Expression) statements.get(statements.size() - 1)).expression;
+        assertEquals(11, negation.operator.line());
+        assertMatchesFullParse(parser, false);
+    }
+
+    @Test
+    void aDeclarationMovedDownSharesNoNodesWithOneLeftBehind() {
+        // Given
+        final var parser = new IncrementalParser("print -1; print 0; print -1;", false);
+
+        // When
+        final var statements = parser.edit("print -1;".length(), 0, "\n");
+
+        // Then
+        final var moved = (Expr.Unary) ((Stmt.Print) statements.get(2)).expression;
+        assertEquals(2, moved.operator.line());
+        final var kept = (Expr.Unary) ((Stmt.Print) statements.get(0)).expression;
+        assertEquals(1, kept.operator.line());
+        assertMatchesFullParse(parser, false);
+    }
+
+    @Test
+    void openingAStringAndClosingItAgainRestoresTheTree() {
+        // Given
+        final var parser = new IncrementalParser(PROGRAM, false);
+        final var offset = PROGRAM.indexOf("print f");
+
+        // When
+        parser.edit(offset, 0, "\"");
+        assertMatchesFullParse(parser, false);
+        parser.edit(offset, 1, "");
+
+        // Then
+        assertMatchesFullParse(parser, false);
+        assertEquals(PROGRAM, parser.source());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void randomEditsMatchParsingTheWholeSource(final long seed) throws IOException {
+        // Given
+        final var program = new StringBuilder(PROGRAM);
+        new GenerateProgram(GenerateProgram.Options.defaults(seed, 40)).generate(program, new StringBuilder());
+        final var stackSafe = seed % 2 == 0;
+        final var parser = new IncrementalParser(program.toString(), stackSafe);
+        final var random = new Random(seed);
+
+        // When / Then
+        for (var i = 0; i < 200; i++) {
+            final var length = parser.source().length();
+            final var offset = random.nextInt(length + 1);
+            final var removed = random.nextInt(Math.min(4, length - offset) + 1);
+            parser.edit(offset, removed, INSERTIONS[random.nextInt(INSERTIONS.length)]);
+            assertMatchesFullParse(parser, stackSafe);
+        }
+    }
+
+    @Test
+    void editsAwayFromTheChangedDeclarationScanLittle() throws IOException {
+        // Given
+        final var program = new StringBuilder();
+        new GenerateProgram(GenerateProgram.Options.defaults(11, 2000)).generate(program, new StringBuilder());
+        final var source = program.toString();
+        final var parser = new IncrementalParser(source, false);
+        final var offset = source.indexOf("print ", source.length() / 2) + "print ".length();
+
+        // When
+        parser.edit(offset, 0, "-");
+
+        // Then
+        assertTrue(parser.rescannedTokens() < 100, () -> parser.rescannedTokens() + " tokens scanned");
+        assertEquals(1, parser.reparsedDeclarations());
+        assertMatchesFullParse(parser, false);
+    }
+
+    private static void assertMatchesFullParse(final IncrementalParser parser, final boolean stackSafe) {
+        final var diagnostics = new Diagnostics();
+        final var tokens = new Scanner(parser.source(), diagnostics).scanTokens();
+        final var statements = new Parser(tokens, stackSafe, true, diagnostics).parse();
+
+        assertEquals(tokens, parser.tokens());
+        assertEquals(diagnostics.pending(), parser.diagnostics());
+        assertEquals(describe(statements), describe(parser.statements()));
+    }
+
+    private static List<String> describe(final List<Stmt> statements) {
+        final var printer = new AstPrinter();
+        return statements.stream().map(statement -> switch (statement) {
+            case Stmt.Print print -> "print " + printer.print(print.expression);
+            case Stmt.Expression expression -> printer.print(expression.expression);
+            case Stmt.Var var -> "var " + var.name.lexeme()
+                    + (var.initializer == null ? "" : " = " + printer.print(var.initializer));
+            default -> statement.getClass().getSimpleName();
+        }).toList();
+    }
+}
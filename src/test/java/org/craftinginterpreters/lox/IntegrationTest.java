@@ -1,6 +1,7 @@
 package org.craftinginterpreters.lox;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
@@ -18,6 +19,12 @@ public class IntegrationTest {
         System.setOut(new java.io.PrintStream(SYSTEM_OUT));
     }
 
+    @BeforeEach
+    void resetOutput() {
+        SYSTEM_OUT.reset();
+        Lox.diagnostics.reset();
+    }
+
     @Test
     void canParseStatementsFile() throws IOException {
         // Given
@@ -38,4 +45,187 @@ public class IntegrationTest {
         // Then
         assertEquals(expected, SYSTEM_OUT.toString());
     }
+
+    @Test
+    void canRunVariablesFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("variables.lox")};
+
+        final var expected = """
+                inner a
+                outer b
+                global c
+                outer a
+                outer b
+                global c
+                global a
+                global b
+                global c
+                nil
+                4
+                21
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    @Test
+    void canRunFunctionsFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("functions.lox")};
+
+        final var expected = """
+                6765
+                2
+                1
+                negative
+                zero
+                positive
+                nil
+                <fn fib>
+                true
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    @Test
+    void canRunClassesFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("classes.lox")};
+
+        final var expected = """
+                -2
+                6
+                (minus, plus)
+                Point instance
+                Point
+                Rex makes a sound, then barks
+                Fido makes a sound, then barks
+                woof
+                true
+                Spot
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    @Test
+    void canRunLoopsFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("loops.lox")};
+
+        final var expected = """
+                500500
+                20
+                6000
+                ***/***/***/
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    @Test
+    void canRunListsFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("lists.lox")};
+
+        final var expected = """
+                [0, 1, 4, 9, 16, 25, 36, 49, 64, 81]
+                10
+                81
+                285
+                [1, two, 3, nil, [true, false]]
+                false
+                [[1, 2], [20, 4]]
+                3
+                []
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    @Test
+    void canRunMapsFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("maps.lox")};
+
+        final var expected = """
+                37
+                85
+                3
+                nil
+                true
+                true
+                false
+                2
+                3
+                2
+                1
+                500
+                998001
+                nil
+                nil
+                true
+                one
+                string one
+                nil
+                {only: [1, 2]}
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    @Test
+    void canRunVectorsFile() throws IOException {
+        // Given
+        final var args = new String[]{resourcePath("vectors.lox")};
+
+        final var expected = """
+                100
+                100
+                4950
+                166650
+                -49.5
+                49.5
+                833.25
+                vector[1, 3, 5]
+                """;
+
+        // When
+        Lox.main(args);
+
+        // Then
+        assertEquals(expected, SYSTEM_OUT.toString());
+    }
+
+    private String resourcePath(final String name) {
+        final var resource = getClass().getClassLoader().getResource(name);
+        assertNotNull(resource);
+        return new File(resource.getFile()).getAbsoluteFile().toString();
+    }
 }
@@ -0,0 +1,80 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and running a generated program that repeats the same subexpressions within every statement, with and
+ * without hash-consing. Both tiers are measured, since the tree-walker and compiled loops each evaluate an operand
+ * shared by both sides of an operator only once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterningBenchmark {
+    private static final int STATEMENTS = 200;
+    private static final String[] NAMES = {"a", "b", "c", "d", "e", "f", "g", "h"};
+
+    @Param({"true", "false"})
+    public boolean interning;
+
+    @Param({"interpreted", "tiered"})
+    public String tier;
+
+    private List<Token> tokens;
+    private List<Stmt> program;
+    private Interpreter interpreter;
+
+    @Setup
+    public void setup() {
+        final var random = new Random(42);
+        final var source = new StringBuilder();
+        for (final var name : NAMES) {
+            source.append("var ").append(name).append(" = ").append(random.nextInt(9) + 1).append(";\n");
+        }
+        source.append("var total = 0;\nfor (var i = 0; i < 2000; i = i + 1) {\n");
+        for (var i = 0; i < STATEMENTS; i++) {
+            final var product = "(%s * %s + %s)".formatted(name(random), name(random), name(random));
+            final var divisor = "(%s + 0.5)".formatted(name(random));
+            source.append("    total = total + %s * %s - %s / %s + %s;\n"
+                    .formatted(product, product, product, divisor, divisor));
+        }
+        source.append("}\n");
+
+        tokens = new Scanner(source.toString()).scanTokens();
+        interpreter = new Interpreter(MemoryBudget.UNLIMITED,
+                tier.equals("tiered") ? Interpreter.DEFAULT_OSR_THRESHOLD : Interpreter.NEVER_COMPILE);
+        program = new Parser(tokens, false, interning).parse();
+        new Resolver(interpreter).resolve(program);
+    }
+
+    private static String name(final Random random) {
+        return NAMES[random.nextInt(NAMES.length)];
+    }
+
+    @Benchmark
+    public List<Stmt> parse() {
+        return new Parser(tokens, false, interning).parse();
+    }
+
+    @Benchmark
+    public void interpret() {
+        interpreter.interpret(program);
+    }
+}
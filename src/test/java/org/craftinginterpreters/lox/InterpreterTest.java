@@ -0,0 +1,845 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InterpreterTest {
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+    private PrintStream originalErr;
+
+    @BeforeEach
+    void captureOutput() {
+        originalOut = System.out;
+        originalErr = System.err;
+        System.setOut(new PrintStream(stdout));
+        System.setErr(new PrintStream(stderr));
+        Lox.diagnostics.reset();
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+        Lox.diagnostics.reset();
+    }
+
+    @Test
+    void concatenationWithinMemoryLimitSucceeds() {
+        // Given
+        final var interpreter = new Interpreter(1024);
+
+        // When
+        run(interpreter, "print \"ab\" + \"cd\";");
+
+        // Then
+        assertEquals("abcd\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void concatenationBeyondMemoryLimitIsARuntimeError() {
+        // Given
+        final var interpreter = new Interpreter(200);
+        final var source = "print \"aaaaaaaaaa\"" + " + \"aaaaaaaaaa\"".repeat(10) + ";";
+
+        // When
+        run(interpreter, source);
+
+        // Then
+        assertEquals("", stdout.toString());
+        assertEquals("Memory limit of 200 bytes exceeded.\n[line 1]\n", stderr.toString());
+        assertEquals(true, Lox.diagnostics.hadRuntimeError());
+    }
+
+    @Test
+    void arithmeticIsChargedPerBoxedNumber() {
+        // Given
+        final var interpreter = new Interpreter(MemoryBudget.NUMBER_BYTES * 2);
+
+        // When
+        run(interpreter, "print 1 + 2 + 3;");
+        run(interpreter, "print 1 + 2 + 3 + 4;");
+
+        // Then
+        assertEquals("6\n", stdout.toString());
+        assertEquals("Memory limit of 32 bytes exceeded.\n[line 1]\n", stderr.toString());
+    }
+
+    @Test
+    void eachRunStartsWithTheWholeBudget() {
+        // Given
+        final var interpreter = new Interpreter(MemoryBudget.NUMBER_BYTES * 2);
+
+        // When
+        run(interpreter, "print 1 + 2 + 3;");
+        run(interpreter, "print 1 + 2 + 3;");
+
+        // Then
+        assertEquals("6\n6\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void readingAnUndefinedGlobalIsARuntimeError() {
+        // When
+        run(new Interpreter(), "print 1;\nprint neverDefined;");
+
+        // Then
+        assertEquals("1\n", stdout.toString());
+        assertEquals("Undefined variable 'neverDefined'.\n[line 2]\n", stderr.toString());
+    }
+
+    @Test
+    void assigningAnUndefinedGlobalIsARuntimeError() {
+        // When
+        run(new Interpreter(), "neverDeclared = 1;");
+
+        // Then
+        assertEquals("Undefined variable 'neverDeclared'.\n[line 1]\n", stderr.toString());
+    }
+
+    @Test
+    void globalsSurviveBetweenRuns() {
+        // Given
+        final var interpreter = new Interpreter();
+
+        // When
+        run(interpreter, "var counter = 1;");
+        run(interpreter, "counter = counter + 1;");
+        run(interpreter, "print counter;");
+
+        // Then
+        assertEquals("2\n", stdout.toString());
+    }
+
+    @Test
+    void localsShadowAndCloseOverEnclosingScopes() {
+        // When
+        run(new Interpreter(), """
+                var a = 1;
+                {
+                    var a = a + 1;
+                }
+                """);
+        run(new Interpreter(), """
+                {
+                    var a = 1;
+                    {
+                        var b = a + 1;
+                        {
+                            a = b + a;
+                        }
+                    }
+                    print a;
+                }
+                """);
+
+        // Then
+        assertEquals("[line 3] Error  at 'a': Can't read local variable in its own initializer.\n", stderr.toString());
+        assertEquals("3\n", stdout.toString());
+    }
+
+    @Test
+    void redeclaringALocalIsAResolutionError() {
+        // When
+        run(new Interpreter(), "{ var a = 1; var a = 2; }");
+
+        // Then
+        assertEquals("[line 1] Error  at 'a': Already a variable with this name in this scope.\n", stderr.toString());
+    }
+
+    @Test
+    void assigningToAnExpressionIsASyntaxError() {
+        // When
+        run(new Interpreter(), "var a = 1;\n(a) = 2;");
+
+        // Then
+        assertEquals("[line 2] Error  at '=': Invalid assignment target.\n", stderr.toString());
+        assertEquals(true, Lox.diagnostics.hadError());
+    }
+
+    @Test
+    void callingANonCallableIsARuntimeError() {
+        // When
+        run(new Interpreter(), "var notAFunction = 1;\nnotAFunction();");
+
+        // Then
+        assertEquals("Can only call functions and classes.\n[line 2]\n", stderr.toString());
+    }
+
+    @Test
+    void callingWithTheWrongNumberOfArgumentsIsARuntimeError() {
+        // When
+        run(new Interpreter(), "fun add(a, b) { return a + b; }\nprint add(1);");
+
+        // Then
+        assertEquals("Expected 2 arguments but got 1.\n[line 2]\n", stderr.toString());
+    }
+
+    @Test
+    void callSiteCacheFollowsTheCallee() {
+        // Given
+        final var interpreter = new Interpreter();
+        run(interpreter, """
+                fun one() { return 1; }
+                fun two(a) { return a + a; }
+                fun call(f) { return f(); }
+                """);
+
+        // When
+        run(interpreter, "print call(one);");
+        run(interpreter, "print call(one);");
+        run(interpreter, "print call(two);");
+        run(interpreter, "print call(one);");
+
+        // Then
+        assertEquals("1\n1\n1\n", stdout.toString());
+        assertEquals("Expected 1 arguments but got 0.\n[line 3]\n", stderr.toString());
+    }
+
+    @Test
+    void pooledFramesAreClearedBetweenCalls() {
+        // When
+        run(new Interpreter(), """
+                fun remember(first, value) {
+                    var seen;
+                    if (first) seen = value;
+                    return seen;
+                }
+                print remember(true, 1);
+                print remember(false, 2);
+                print remember(true, remember(true, 3) + 1);
+                """);
+
+        // Then
+        assertEquals("1\nnil\n4\n", stdout.toString());
+    }
+
+    @Test
+    void closuresKeepTheirEnvironmentAfterReturning() {
+        // When
+        run(new Interpreter(), """
+                fun adder(n) {
+                    fun add(x) { return x + n; }
+                    return add;
+                }
+                var addOne = adder(1);
+                var addTen = adder(10);
+                print addOne(1) + addTen(1);
+                """);
+
+        // Then
+        assertEquals("13\n", stdout.toString());
+    }
+
+    @Test
+    void returningFromTopLevelIsAResolutionError() {
+        // When
+        run(new Interpreter(), "return 1;");
+
+        // Then
+        assertEquals("[line 1] Error  at 'return': Can't return from top-level code.\n", stderr.toString());
+    }
+
+    @Test
+    void tailCallsRunInConstantJavaStack() {
+        // When
+        run(new Interpreter(), """
+                fun count(n, total) {
+                    if (n == 0) return total;
+                    return count(n - 1, total + 1);
+                }
+                fun isEven(n) {
+                    if (n == 0) return true;
+                    return (isOdd(n - 1));
+                }
+                fun isOdd(n) {
+                    if (n == 0) return false;
+                    { return isEven(n - 1); }
+                }
+                print count(1000000, 0);
+                print isEven(1000001);
+                """);
+
+        // Then
+        assertEquals("1000000\nfalse\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void tailCallsToNativeAndNonCallableValues() {
+        // When
+        run(new Interpreter(), """
+                fun now() { return clock(); }
+                fun broken() { return now()(); }
+                print now() > 0;
+                broken();
+                """);
+
+        // Then
+        assertEquals("true\n", stdout.toString());
+        assertEquals("Can only call functions and classes.\n[line 2]\n", stderr.toString());
+    }
+
+    @Test
+    void propertySitesStayCorrectAcrossManyShapes() {
+        // When
+        run(new Interpreter(), """
+                class Box {}
+                fun make(n) {
+                    var box = Box();
+                    if (n > 0) box.a = 1;
+                    if (n > 1) box.b = 2;
+                    if (n > 2) box.c = 3;
+                    if (n > 3) box.d = 4;
+                    if (n > 4) box.e = 5;
+                    box.value = n;
+                    return box;
+                }
+                fun read(box) { return box.value; }
+                print read(make(0)) + read(make(1)) + read(make(2)) + read(make(3)) + read(make(4)) + read(make(5));
+                print read(make(5)) + read(make(0));
+                """);
+
+        // Then
+        assertEquals("15\n5\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void fieldsShadowMethods() {
+        // When
+        run(new Interpreter(), """
+                class Greeter {
+                    greet() { return "method"; }
+                }
+                fun field() { return "field"; }
+                var greeter = Greeter();
+                print greeter.greet();
+                greeter.greet = field;
+                print greeter.greet();
+                print Greeter().greet();
+                """);
+
+        // Then
+        assertEquals("method\nfield\nmethod\n", stdout.toString());
+    }
+
+    @Test
+    void readingAnUndefinedPropertyIsARuntimeError() {
+        // When
+        run(new Interpreter(), "class Empty {}\nprint Empty().missing;");
+        run(new Interpreter(), "var notAnInstance = 1;\nprint notAnInstance.field;");
+
+        // Then
+        assertEquals("Undefined property 'missing'.\n[line 2]\nOnly instances have properties.\n[line 2]\n",
+                stderr.toString());
+    }
+
+    @Test
+    void misusingClassKeywordsIsAResolutionError() {
+        // When
+        run(new Interpreter(), "print this;");
+        run(new Interpreter(), "class A { f() { return super.f(); } }");
+        run(new Interpreter(), "class A < A {}");
+        run(new Interpreter(), "class A { init() { return 1; } }");
+
+        // Then
+        assertEquals("""
+                [line 1] Error  at 'this': Can't use 'this' outside of a class.
+                [line 1] Error  at 'super': Can't use 'super' in a class with no superclass.
+                [line 1] Error  at 'A': A class can't inherit from itself.
+                [line 1] Error  at 'return': Can't return a value from an initializer.
+                """, stderr.toString());
+    }
+
+    @Test
+    void instancesAreChargedAgainstTheMemoryLimit() {
+        // Given
+        final var interpreter = new Interpreter(MemoryBudget.INSTANCE_BYTES + MemoryBudget.FIELD_BYTES);
+
+        // When
+        run(interpreter, "class A {}\nvar a = A();\na.x = 1;\na.x = 2;\nprint a.x;\na.y = 3;");
+
+        // Then
+        assertEquals("2\n", stdout.toString());
+        assertEquals("Memory limit of 32 bytes exceeded.\n[line 6]\n", stderr.toString());
+    }
+
+    @Test
+    void loopsBehaveTheSameInEveryTier() {
+        // Given
+        final var source = """
+                var squares = 0;
+                for (var i = 0; i < 200; i = i + 1) {
+                    var square = i * i;
+                    {
+                        squares = squares + square;
+                    }
+                }
+                print squares;
+                fun adder(n) {
+                    fun add(x) { return x + n; }
+                    return add;
+                }
+                var text = "";
+                var i = 0;
+                while (i < 1500) {
+                    var add = adder(i);
+                    if (add(1) > 1499) text = text + "!";
+                    else if (-i < -1497) text = text + "?";
+                    i = add(1);
+                }
+                print text;
+                """;
+        final var interpreted = new Interpreter(MemoryBudget.UNLIMITED, Interpreter.NEVER_COMPILE);
+        final var compiledAtOnce = new Interpreter(MemoryBudget.UNLIMITED, 1);
+        final var compiledMidway = new Interpreter(MemoryBudget.UNLIMITED, 100);
+
+        // When
+        run(interpreted, source);
+        run(compiledAtOnce, source);
+        run(compiledMidway, source);
+
+        // Then
+        assertEquals("2646700\n?!\n".repeat(3), stdout.toString());
+        assertEquals("", stderr.toString());
+        assertEquals(interpreted.memory.allocated(), compiledAtOnce.memory.allocated());
+        assertEquals(interpreted.memory.allocated(), compiledMidway.memory.allocated());
+    }
+
+    @Test
+    void runtimeErrorsInCompiledLoopsReportTheirLine() {
+        // When
+        run(new Interpreter(MemoryBudget.UNLIMITED, 10), """
+                var value = 0;
+                while (true) {
+                    value = value + 1;
+                    if (value == 100) value = "done";
+                    print -value;
+                }
+                """);
+
+        // Then
+        assertEquals("Operand must be a number.\n[line 5]\n", stderr.toString());
+        assertEquals(99, stdout.toString().lines().count());
+    }
+
+    @Test
+    void logicalOperatorsShortCircuitAndReturnAnOperand() {
+        // When
+        run(new Interpreter(), """
+                fun loud(value) {
+                    print "evaluated";
+                    return value;
+                }
+                print "left" or loud("right");
+                print nil and loud("right");
+                print nil or loud("right");
+                print 1 and 2;
+                """);
+
+        // Then
+        assertEquals("left\nnil\nevaluated\nright\n2\n", stdout.toString());
+    }
+
+    @Test
+    void branchProfilesCountTheDecidingOperandInEveryTier() {
+        // Given
+        final var source = "for (var i = 0; i < 300; i = i + 1) { i < 200 and i; }";
+        final var statements = new Parser(new Scanner(source).scanTokens()).parse();
+        final var loop = (Stmt.Block) statements.get(0);
+        final var body = (Stmt.Block) ((Stmt.Block) ((Stmt.While) loop.statements.get(1)).body).statements.get(0);
+        final var logical = (Expr.Logical) ((Stmt.Expression) body.statements.get(0)).expression;
+        final var interpreter = new Interpreter(MemoryBudget.UNLIMITED, 50);
+        new Resolver(interpreter).resolve(statements);
+
+        // When
+        interpreter.interpret(statements);
+
+        // Then
+        assertEquals(100, logical.profile.leftDecided);
+        assertEquals(200, logical.profile.rightDecided);
+    }
+
+    @Test
+    void listsStayNumericUntilAnotherTypeIsStored() {
+        // Given
+        final var list = new LoxList(0);
+        final var memory = new MemoryBudget(MemoryBudget.UNLIMITED);
+        final var token = new Token(TokenType.LEFT_BRACKET, "[", null, 1);
+
+        // When
+        for (var i = 0; i < 100; i++) {
+            list.append(memory, token, (double) i);
+        }
+        final var numericBefore = list.isNumeric();
+        list.set(memory, token, 50, "fifty");
+
+        // Then
+        assertEquals(true, numericBefore);
+        assertEquals(false, list.isNumeric());
+        assertEquals(100, list.size());
+        assertEquals(49.0, list.get(49));
+        assertEquals("fifty", list.get(50));
+        assertEquals(99.0, list.get(99));
+        // Every element is charged for when appended, and the numbers once more when they are boxed.
+        assertEquals(100 * (MemoryBudget.ELEMENT_BYTES + MemoryBudget.NUMBER_BYTES), memory.allocated());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "print [1, 2][2];|Index 2 is out of bounds for a list of length 2.",
+            "print [1, 2][-1];|Index -1 is out of bounds for a list of length 2.",
+            "print [1, 2][0.5];|Index must be a whole number.",
+            "print [1, 2, 3][1.5];|Index must be a whole number.",
+            "print [1, 2][\"0\"];|Index must be a number.",
+            "var notAList = 1; print notAList[0];|Only lists, maps and vectors can be indexed.",
+            "[1].append(1, 2);|Expected 1 arguments but got 2.",
+            "print [1].size;|Undefined property 'size'.",
+            "[1].length = 2;|Only instances have fields.",
+    })
+    void misusingListsIsARuntimeError(final String source, final String error) {
+        // When
+        run(new Interpreter(), source);
+
+        // Then
+        assertEquals(error + "\n[line 1]\n", stderr.toString());
+    }
+
+    @Test
+    void mapsKeepEveryKeyThroughGrowthAndRemoval() {
+        // Given
+        final var map = new LoxMap();
+        final var memory = new MemoryBudget(MemoryBudget.UNLIMITED);
+        final var token = new Token(TokenType.LEFT_BRACE, "{", null, 1);
+
+        // When
+        for (var i = 0; i < 10_000; i++) {
+            map.put(memory, token, (double) i, "v" + i);
+        }
+        for (var i = 0; i < 10_000; i += 3) {
+            map.remove((double) i);
+        }
+
+        // Then
+        assertEquals(6_666, map.size());
+        for (var i = 0; i < 10_000; i++) {
+            assertEquals(i % 3 == 0 ? null : "v" + i, map.get((double) i));
+        }
+        assertEquals(10_000 * MemoryBudget.ENTRY_BYTES, memory.allocated());
+    }
+
+    @Test
+    void mapKeysFollowLoxEquality() {
+        // Given
+        final var source = """
+                var map = {0: "zero", "ab": "string", nil: "nil"};
+                print map[-0];
+                print map["a" + "b"];
+                print map[nil];
+                print map[0.5 + 0.5];
+                map[1] = "one";
+                print map[1];
+                print map.has(-0);
+                """;
+
+        // When
+        run(new Interpreter(), source);
+
+        // Then
+        assertEquals("nil\nstring\nnil\nnil\none\nfalse\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void vectorArithmeticWorksElementByElement() {
+        // Given
+        final var source = """
+                var v = [1, 2, 3, 4, 5].toVector();
+                var w = [5, 4, 3, 2, 1].toVector();
+                print v + w;
+                print v * w - 1;
+                print 60 / v;
+                print (v - 3) * (v - 3);
+                print (v * w).sum();
+                print (v - w).min();
+                print (v - w).max();
+                v[0] = 10;
+                print v[0] + v.length;
+                """;
+
+        // When
+        run(new Interpreter(), source);
+
+        // Then
+        assertEquals("""
+                vector[6, 6, 6, 6, 6]
+                vector[4, 7, 8, 7, 4]
+                vector[60, 30, 20, 15, 12]
+                vector[4, 1, 0, 1, 4]
+                35
+                -4
+                4
+                15
+                """, stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "print [1, 2].toVector() + [1].toVector();|Vectors must have the same length.",
+            "print [1, nil].toVector();|Vector elements must be numbers.",
+            "print [].toVector().max();|Can't take the max of an empty vector.",
+            "print [1].toVector() / 0;|Cannot divide by zero.",
+            "print [1].toVector() + \"a\";|Operands must be vectors or numbers.",
+            "var v = [1].toVector(); v[0] = true;|Vector elements must be numbers.",
+            "print [1].toVector()[1];|Index 1 is out of bounds for a vector of length 1.",
+    })
+    void misusingVectorsIsARuntimeError(final String source, final String error) {
+        // When
+        run(new Interpreter(), source);
+
+        // Then
+        assertEquals(error + "\n[line 1]\n", stderr.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "1", "7", "64", "1001"})
+    void simdKernelsMatchScalarKernels(final int length) {
+        // Given
+        final var random = new Random(length);
+        final var left = random.doubles(length, -100, 100).map(Math::rint).toArray();
+        final var right = random.doubles(length, 1, 100).map(Math::rint).toArray();
+        final var scalar = new ScalarKernels();
+        final var simd = new SimdKernels();
+
+        for (final var operator : new TokenType[]{TokenType.PLUS, TokenType.MINUS, TokenType.STAR, TokenType.SLASH}) {
+            // When
+            final var expected = new double[length];
+            final var actual = new double[length];
+            scalar.apply(operator, left, right, expected);
+            simd.apply(operator, left, right, actual);
+            final var expectedBroadcast = new double[length];
+            final var actualBroadcast = new double[length];
+            scalar.apply(operator, 3.0, right, expectedBroadcast);
+            simd.apply(operator, 3.0, right, actualBroadcast);
+
+            // Then
+            assertArrayEquals(expected, actual);
+            assertArrayEquals(expectedBroadcast, actualBroadcast);
+        }
+        // Whole numbers add up exactly in any order.
+        assertEquals(scalar.sum(left), simd.sum(left));
+        if (length > 0) {
+            assertEquals(scalar.min(left), simd.min(left));
+            assertEquals(scalar.max(left), simd.max(left));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classes.lox", "functions.lox", "lists.lox", "loops.lox", "maps.lox", "statements.lox",
+            "variables.lox", "vectors.lox"})
+    void switchDispatchMatchesVisitorDispatch(final String file) throws IOException {
+        // Given
+        final String source;
+        try (final var resource = getClass().getClassLoader().getResourceAsStream(file)) {
+            assertNotNull(resource);
+            source = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        run(new Interpreter(), source);
+        final var expected = stdout.toString();
+        stdout.reset();
+
+        // When
+        run(new SwitchInterpreter(MemoryBudget.UNLIMITED, Interpreter.DEFAULT_OSR_THRESHOLD), source);
+
+        // Then
+        assertEquals(expected, stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void aLoopCompiledByOneInterpreterRunsInterpretedOnAnother() {
+        // Given
+        final var source = """
+                var total = 0;
+                for (var i = 0; i < 100; i = i + 1) total = total + i;
+                print total;
+                """;
+        final var first = new Interpreter(MemoryBudget.UNLIMITED, 10);
+        final var statements = new Parser(new Scanner(source).scanTokens()).parse();
+        new Resolver(first).resolve(statements);
+
+        // When
+        first.interpret(statements);
+        new Interpreter(MemoryBudget.UNLIMITED, 10).interpret(statements);
+
+        // Then
+        assertEquals("4950\n4950\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void sharedNamesOnOneLineStillResolveToTheirOwnScopes() {
+        // When
+        run(new Interpreter(), """
+                var x = "global"; { print x; var x = "block"; print x; { print x; } } print x; fun f(x) { print x; } f("parameter");
+                for (var i = 0; i < 2; i = i + 1) { var i = "shadow"; print i + i; }
+                """);
+
+        // Then
+        assertEquals("global\nblock\nblock\nglobal\nparameter\nshadowshadow\nshadowshadow\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void anOperandSharedByBothSidesIsEvaluatedOnce() {
+        // Given
+        final var source = "var a = 3; var b = 4; print (a * b) + (a * b);";
+        final var interning = new Interpreter();
+        final var separate = new Interpreter();
+
+        // When
+        final var shared = new Parser(new Scanner(source).scanTokens()).parse();
+        new Resolver(interning).resolve(shared);
+        interning.interpret(shared);
+        final var copies = new Parser(new Scanner(source).scanTokens(), false, false).parse();
+        new Resolver(separate).resolve(copies);
+        separate.interpret(copies);
+
+        // Then
+        assertEquals("24\n24\n", stdout.toString());
+        assertEquals(separate.memory.allocated() - MemoryBudget.NUMBER_BYTES, interning.memory.allocated());
+    }
+
+    @Test
+    void typeInferenceMarksOperatorsThatOnlySeeNumbers() {
+        // Given
+        final var source = """
+                var global = 1;
+                {
+                    var total = 0;
+                    var i = 0;
+                    while (i < 10) { total = total + i * 2; i = i + 1; }
+                    var label = "total";
+                    print label + " " + -total;
+                    print global * total;
+                }
+                """;
+        final var statements = new Parser(new Scanner(source).scanTokens()).parse();
+        new Resolver(new Interpreter()).resolve(statements);
+
+        // When
+        new TypeInference().infer(statements);
+
+        // Then
+        final var block = (Stmt.Block) statements.get(1);
+        final var loop = (Stmt.While) block.statements.get(2);
+        assertTrue(((Expr.Binary) loop.condition).numeric);
+        final var sum = (Expr.Binary) ((Expr.Assign) ((Stmt.Expression) ((Stmt.Block) loop.body).statements.get(0))
+                .expression).value;
+        assertTrue(sum.numeric);
+        assertTrue(((Expr.Binary) sum.right).numeric);
+        final var concatenation = (Expr.Binary) ((Stmt.Print) block.statements.get(4)).expression;
+        assertFalse(concatenation.numeric);
+        assertTrue(((Expr.Unary) concatenation.right).numeric);
+        assertFalse(((Expr.Binary) ((Stmt.Print) block.statements.get(5)).expression).numeric);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "{ var a = 1; var b = \"s\"; print a - b; }|Operands must be a numbers.",
+            "{ var a = 1; a = nil; print -a; }|Operand must be a number.",
+            "{ var a = 1; var b = a; b = [a]; print a < b; }|Operands must be a numbers.",
+            "{ var a = 4; print a / (a - 4); }|Cannot divide by zero.",
+            "{ var a = 2; print \"x\" + a * a; }|Operands must be two numbers or two strings.",
+    })
+    void inferredProgramsReportTheSameRuntimeErrors(final String source, final String message) {
+        // When
+        run(new Interpreter(), source);
+
+        // Then
+        assertEquals(message + "\n[line 1]\n", stderr.toString());
+    }
+
+    @Test
+    void errorsReportedToASinkAreCollectedRatherThanPrinted() {
+        // Given
+        final var diagnostics = new Diagnostics();
+        final var interpreter = new Interpreter();
+        final var tokens = new Scanner("print -\"x\";\n@", diagnostics).scanTokens();
+        final var statements = new Parser(tokens, false, false, diagnostics).parse();
+        new Resolver(interpreter, diagnostics).resolve(statements);
+
+        // When
+        interpreter.interpret(statements, diagnostics);
+
+        // Then
+        assertEquals(List.of(
+                new Diagnostics.Diagnostic(Diagnostics.Kind.STATIC, 2, "", "Unexpected character."),
+                new Diagnostics.Diagnostic(Diagnostics.Kind.RUNTIME, 1, "", "Operand must be a number.")
+        ), diagnostics.pending());
+        assertTrue(diagnostics.hadError());
+        assertTrue(diagnostics.hadRuntimeError());
+        assertEquals("", stderr.toString());
+        assertFalse(Lox.diagnostics.hadError());
+
+        // When
+        diagnostics.flush(System.err);
+
+        // Then
+        assertEquals("[line 2] Error : Unexpected character.\nOperand must be a number.\n[line 1]\n",
+                stderr.toString().replace(System.lineSeparator(), "\n"));
+        assertEquals(List.of(), diagnostics.pending());
+        assertTrue(diagnostics.hadError());
+    }
+
+    @Test
+    void runtimeErrorsDoNotCaptureAJavaStackTrace() {
+        // Given
+        final var error = new RuntimeError(new Token(TokenType.MINUS, "-", null, 1), "Operand must be a number.");
+
+        // Then
+        assertEquals(0, error.getStackTrace().length);
+        assertEquals("Operand must be a number.", error.getMessage());
+    }
+
+    /**
+     * Scan, parse, resolve, infer types and interpret the source, stopping after a syntax or resolution error like
+     * {@link Lox}, then print the errors reported.
+     */
+    private static void run(final Interpreter interpreter, final String source) {
+        Lox.diagnostics.reset();
+        try {
+            final var tokens = new Scanner(source).scanTokens();
+            final var statements = new Parser(tokens).parse();
+            if (Lox.diagnostics.hadError()) return;
+            new Resolver(interpreter).resolve(statements);
+            if (Lox.diagnostics.hadError()) return;
+            new TypeInference().infer(statements);
+            interpreter.interpret(statements);
+        } finally {
+            Lox.diagnostics.flush(System.err);
+        }
+    }
+}
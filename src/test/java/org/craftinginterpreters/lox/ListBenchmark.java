@@ -0,0 +1,59 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a list with numbers and sums it repeatedly, once with the list in its unboxed numeric storage and once with
+ * the same numbers in a list that was made general by its first element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListBenchmark {
+    private static final String SOURCE = """
+            var xs = [%s];
+            xs[0] = 0;
+            for (var i = 1; i < 10000; i = i + 1) xs.append(i);
+            var total = 0;
+            for (var pass = 0; pass < 20; pass = pass + 1) {
+                for (var i = 0; i < xs.length; i = i + 1) {
+                    total = total + xs[i];
+                }
+            }
+            """;
+
+    @Param({"numeric", "generalized"})
+    public String storage;
+
+    private Interpreter interpreter;
+    private List<Stmt> program;
+
+    @Setup
+    public void setup() {
+        interpreter = new Interpreter(MemoryBudget.UNLIMITED);
+        final var first = storage.equals("numeric") ? "0" : "nil";
+        program = new Parser(new Scanner(SOURCE.formatted(first)).scanTokens()).parse();
+        new Resolver(interpreter).resolve(program);
+    }
+
+    @Benchmark
+    public void sumList() {
+        interpreter.interpret(program);
+    }
+}
@@ -0,0 +1,58 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single long-running loop nest, run entirely in the tree-walking tier and with on-stack promotion to compiled
+ * code after the default number of iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopBenchmark {
+    private static final String SOURCE = """
+            var total = 0;
+            for (var i = 0; i < 300; i = i + 1) {
+                for (var j = 0; j < 300; j = j + 1) {
+                    var product = i * j;
+                    if (product > 100) total = total + product - 100;
+                    else total = total + 1;
+                }
+            }
+            """;
+
+    @Param({"interpreted", "tiered"})
+    public String tier;
+
+    private Interpreter interpreter;
+    private List<Stmt> program;
+
+    @Setup
+    public void setup() {
+        final var osrThreshold = tier.equals("tiered") ? Interpreter.DEFAULT_OSR_THRESHOLD : Interpreter.NEVER_COMPILE;
+        interpreter = new Interpreter(MemoryBudget.UNLIMITED, osrThreshold);
+        program = new Parser(new Scanner(SOURCE).scanTokens()).parse();
+        new Resolver(interpreter).resolve(program);
+    }
+
+    @Benchmark
+    public void loopNest() {
+        interpreter.interpret(program);
+    }
+}
@@ -0,0 +1,49 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoxMetricsTest {
+    @Test
+    void metricsArePublishedOnThePlatformMBeanServer() throws JMException {
+        // Given
+        final var metrics = LoxMetrics.INSTANCE;
+        final var server = ManagementFactory.getPlatformMBeanServer();
+        final var name = new ObjectName(LoxMetrics.OBJECT_NAME);
+        final var scans = (long) server.getAttribute(name, "ScanCount");
+        final var tokens = (long) server.getAttribute(name, "TokenCount");
+
+        // When
+        metrics.scanned(1_500, 12);
+
+        // Then
+        assertEquals(scans + 1, server.getAttribute(name, "ScanCount"));
+        assertEquals(tokens + 12, server.getAttribute(name, "TokenCount"));
+    }
+
+    @Test
+    void histogramBucketsByPowersOfTwoMicroseconds() {
+        // Given
+        final var histogram = new LatencyHistogram();
+
+        // When
+        histogram.record(500);
+        histogram.record(1_000);
+        histogram.record(3_999);
+        histogram.record(Long.MAX_VALUE);
+
+        // Then
+        final var expected = new long[LatencyHistogram.BUCKETS];
+        expected[0] = 1;
+        expected[1] = 1;
+        expected[2] = 1;
+        expected[LatencyHistogram.BUCKETS - 1] = 1;
+        assertArrayEquals(expected, histogram.snapshot());
+    }
+}
@@ -0,0 +1,79 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a map with every key and then looks each one up, comparing {@link LoxMap} with a {@link HashMap}, whose
+ * {@code equals}-based keys agree with Lox equality. Keys are either whole numbers or strings.
+ * Lookups go in a shuffled order: sequential keys have nearly sequential {@link String#hashCode}s, so looking them
+ * up in insertion order walks {@link HashMap}'s unmixed table front to back, which real programs rarely do.
+ * The 10M entry runs need a few gigabytes of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MapBenchmark {
+    private static final Token TOKEN = new Token(TokenType.LEFT_BRACE, "{", null, 1);
+
+    @Param({"1000", "1000000", "10000000"})
+    public int entries;
+
+    @Param({"number", "string"})
+    public String keyType;
+
+    private Object[] keys;
+    private Object[] lookups;
+
+    @Setup
+    public void setup() {
+        keys = new Object[entries];
+        for (var i = 0; i < entries; i++) {
+            keys[i] = keyType.equals("number") ? (Object) (double) i : "key" + i;
+        }
+        lookups = keys.clone();
+        Collections.shuffle(Arrays.asList(lookups), new Random(42));
+    }
+
+    @Benchmark
+    public void loxMap(final Blackhole blackhole) {
+        final var memory = new MemoryBudget(MemoryBudget.UNLIMITED);
+        final var map = new LoxMap();
+        for (final var key : keys) {
+            map.put(memory, TOKEN, key, key);
+        }
+        for (final var key : lookups) {
+            blackhole.consume(map.get(key));
+        }
+    }
+
+    @Benchmark
+    public void hashMap(final Blackhole blackhole) {
+        final var map = new HashMap<Object, Object>();
+        for (final var key : keys) {
+            map.put(key, key);
+        }
+        for (final var key : lookups) {
+            blackhole.consume(map.get(key));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.craftinginterpreters.lox;
+
+import org.craftinginterpreters.tool.GenerateProgram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading a program that imports sixteen independent generated modules of 2000 statements each: reading, scanning and
+ * parsing them one after another, loading them in parallel into an empty cache, and loading them again from a cache
+ * that already holds them, which only reads and digests the files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModuleBenchmark {
+    private static final int MODULES = 16;
+
+    private Path directory;
+    private final List<Path> files = new ArrayList<>();
+    private List<Stmt> program;
+    private final ModuleLoader cached = new ModuleLoader(false);
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("modules");
+        final var imports = new StringBuilder();
+        for (var i = 0; i < MODULES; i++) {
+            final var source = new StringBuilder();
+            new GenerateProgram(GenerateProgram.Options.defaults(i, 2000)).generate(source, new StringBuilder());
+            final var file = directory.resolve("module" + i + ".lox");
+            Files.writeString(file, source, Charset.defaultCharset());
+            files.add(file);
+            imports.append("import \"module").append(i).append(".lox\";\n");
+        }
+        program = new Parser(new Scanner(imports.toString(), new Diagnostics()).scanTokens()).parse();
+        cached.load(program, directory, new Diagnostics());
+    }
+
+    @TearDown
+    public void deleteModules() throws IOException {
+        try (Stream<Path> tree = Files.walk(directory)) {
+            for (final var path : (Iterable<Path>) tree.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<List<Stmt>> sequential() throws IOException {
+        final var modules = new ArrayList<List<Stmt>>(files.size());
+        for (final var file : files) {
+            final var diagnostics = new Diagnostics();
+            final var source = Files.readString(file, Charset.defaultCharset());
+            modules.add(new Parser(new Scanner(source, diagnostics).scanTokens(), false, true, diagnostics).parse());
+        }
+        return modules;
+    }
+
+    @Benchmark
+    public int parallel() {
+        final var loader = new ModuleLoader(false);
+        loader.load(program, directory, new Diagnostics());
+        return loader.parsedModules();
+    }
+
+    @Benchmark
+    public int fromCache() {
+        cached.load(program, directory, new Diagnostics());
+        return cached.parsedModules();
+    }
+}
@@ -0,0 +1,171 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ModuleLoaderTest {
+    @TempDir
+    Path root;
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private final ModuleLoader modules = new ModuleLoader(false);
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void captureOutput() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(stdout));
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void importedDeclarationsAreGlobal() throws IOException {
+        // Given
+        write("lib/math.lox", "fun square(n) { return n * n; }\nvar unit = 1;\n");
+
+        // When
+        run("import \"lib/math.lox\";\nprint square(3) + unit;\n");
+
+        // Then
+        assertEquals("10\n", stdout.toString());
+        assertEquals("", stderr.toString());
+    }
+
+    @Test
+    void aModuleImportedByManyRunsAndIsParsedOnce() throws IOException {
+        // Given
+        write("shared.lox", "print \"shared\";\n");
+        write("a.lox", "import \"shared.lox\";\nprint \"a\";\n");
+        write("b/b.lox", "import \"../shared.lox\";\nprint \"b\";\n");
+
+        // When
+        run("import \"a.lox\";\nimport \"b/b.lox\";\nimport \"./shared.lox\";\n");
+
+        // Then
+        assertEquals("shared\na\nb\n", stdout.toString());
+        assertEquals(3, modules.parsedModules());
+    }
+
+    @Test
+    void modulesThatImportEachOtherRunOnce() throws IOException {
+        // Given
+        write("ping.lox", "import \"pong.lox\";\nprint \"ping\";\n");
+        write("pong.lox", "import \"ping.lox\";\nprint \"pong\";\n");
+
+        // When
+        run("import \"ping.lox\";\n");
+
+        // Then
+        assertEquals("pong\nping\n", stdout.toString());
+    }
+
+    @Test
+    void anUnchangedModuleIsTakenFromTheCacheAndAChangedOneParsedAgain() throws IOException {
+        // Given
+        write("greeting.lox", "var greeting = \"hello\";\n");
+        final var first = load("import \"greeting.lox\";\n");
+        final var again = load("import \"greeting.lox\";\n");
+
+        // When
+        write("greeting.lox", "var greeting = \"goodbye\";\n");
+        final var changed = load("import \"greeting.lox\";\n");
+
+        // Then
+        assertSame(first, again);
+        assertNotSame(first, changed);
+        assertEquals(2, modules.parsedModules());
+    }
+
+    @Test
+    void aModuleThatCannotBeReadIsAResolutionError() {
+        // When
+        run("import \"missing.lox\";\nprint 1;\n");
+
+        // Then
+        assertEquals("", stdout.toString());
+        assertEquals("[line 1] Error  at '\"missing.lox\"': Could not read module.\n", stderr.toString());
+    }
+
+    @Test
+    void syntaxErrorsInAModuleNameItsFile() throws IOException {
+        // Given
+        write("broken.lox", "var ok = 1;\nprint ok +;\n");
+
+        // When
+        run("import \"broken.lox\";\n");
+
+        // Then
+        assertEquals("[line 2] Error  in " + root.resolve("broken.lox").toRealPath()
+                + " at ';': Expect expression\n", stderr.toString());
+    }
+
+    @Test
+    void anImportAtTheEndOfTheInputIsASyntaxError() {
+        // When
+        run("print 1;\nimport");
+
+        // Then
+        assertEquals("", stdout.toString());
+        assertEquals("[line 2] Error  at end: Expect module path after 'import'.\n", stderr.toString());
+    }
+
+    @Test
+    void importsAreOnlyAllowedAtTheTopLevel() throws IOException {
+        // Given
+        write("lib.lox", "var x = 1;\n");
+
+        // When
+        run("{\n  import \"lib.lox\";\n}\n");
+
+        // Then
+        assertEquals("[line 2] Error  at 'import': Can't import from inside a block.\n", stderr.toString());
+    }
+
+    private void write(final String name, final String source) throws IOException {
+        final var file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+    }
+
+    private Module load(final String source) {
+        final var statements = parse(source, new Diagnostics());
+        modules.load(statements, root, new Diagnostics());
+        return ((Stmt.Import) statements.get(0)).module;
+    }
+
+    private void run(final String source) {
+        final var diagnostics = new Diagnostics();
+        final var statements = parse(source, diagnostics);
+        final var interpreter = new Interpreter();
+        modules.load(statements, root, diagnostics);
+        if (!diagnostics.hadError()) new Resolver(interpreter, diagnostics).resolve(statements);
+        if (!diagnostics.hadError()) {
+            new TypeInference().infer(statements);
+            interpreter.interpret(statements, diagnostics);
+        }
+        final var errors = new PrintStream(stderr, true);
+        diagnostics.flush(errors);
+    }
+
+    private static List<Stmt> parse(final String source, final Diagnostics diagnostics) {
+        return new Parser(new Scanner(source, diagnostics).scanTokens(), false, true, diagnostics).parse();
+    }
+}
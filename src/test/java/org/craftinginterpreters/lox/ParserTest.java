@@ -0,0 +1,216 @@
+package org.craftinginterpreters.lox;
+
+import org.craftinginterpreters.tool.GenerateProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ParserTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "1 + 2 * 3 - 4 / 5;",
+            "1 * 2 * 3 / 4;",
+            "1 - 2 - 3 + 4;",
+            "1 < 2 == 3 >= 4 != 5;",
+            "-!-1 * --(2 + 3) / !4;",
+            "((1)) + (2 * (3 - -(4)));",
+            "\"a\" + \"b\" == \"ab\";",
+            "print (1 + (2",
+            "-f(1, g(2) * 3)(4) / -(h)();",
+            "a.b(c).d = -e.f * (g).h;",
+            "a or b and c == d or !e and (f or g);",
+            "x = y = a and b or c;",
+            "a[1][b + 2] = -[1, [2], c.d[3]][0];",
+            "m = {\"a\": [1], 2: {}, nil: -k}[k + 1];",
+            "print (a = 1);",
+            "-(a = 2);",
+            "(b = 3) + 1;",
+            "(l[0] = 5);",
+            "(a.b = c = d or e) * (f = -(g = 1) + 2);",
+    })
+    void stackSafeParserBuildsTheSameTree(final String source) {
+        // Given
+        final var tokens = new Scanner(source).scanTokens();
+
+        // When
+        final var recursive = print(new Parser(tokens).parse());
+        final var stackSafe = print(new Parser(tokens, true).parse());
+
+        // Then
+        assertEquals(recursive, stackSafe);
+    }
+
+    @Test
+    void stackSafeParserBuildsTheSameTreeForGeneratedPrograms() throws IOException {
+        // Given
+        final var program = new StringBuilder();
+        new GenerateProgram(GenerateProgram.Options.defaults(99, 200)).generate(program, new StringBuilder());
+        final var tokens = new Scanner(program.toString()).scanTokens();
+
+        // When
+        final var recursive = print(new Parser(tokens).parse());
+        final var stackSafe = print(new Parser(tokens, true).parse());
+
+        // Then
+        assertEquals(recursive, stackSafe);
+    }
+
+    @Test
+    void stackSafeParserHandlesDeeplyNestedExpressions() {
+        // Given
+        final var depth = 200_000;
+        final var source = "-".repeat(depth) + "(".repeat(depth) + "1" + ")".repeat(depth) + " * 2;";
+        final var tokens = new Scanner(source).scanTokens();
+
+        // When
+        final var statements = new Parser(tokens, true).parse();
+
+        // Then
+        var expr = ((Stmt.Expression) statements.get(0)).expression;
+        expr = assertInstanceOf(Expr.Binary.class, expr).left;
+        for (var i = 0; i < depth; i++) {
+            expr = assertInstanceOf(Expr.Unary.class, expr).right;
+        }
+        for (var i = 0; i < depth; i++) {
+            expr = assertInstanceOf(Expr.Grouping.class, expr).expression;
+        }
+        assertEquals(1.0, assertInstanceOf(Expr.Literal.class, expr).value);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1 + ;", "(1 2);", "print 1 +", "(a + b = 1);", "(-a = b = 2);", "(a = 1 = b);"})
+    void stackSafeParserReportsTheSameErrors(final String source) {
+        // Given
+        final var tokens = new Scanner(source).scanTokens();
+
+        // When
+        final var recursive = errorOutput(() -> new Parser(tokens).parse());
+        final var stackSafe = errorOutput(() -> new Parser(tokens, true).parse());
+
+        // Then
+        assertEquals(recursive, stackSafe);
+    }
+
+    @Test
+    void identicalPureSubtreesAreShared() {
+        // Given
+        final var tokens = new Scanner("print (a * b + 1) - (a * b + 1) + f(a * b) + f(a * b);").scanTokens();
+        final var parser = new Parser(tokens);
+
+        // When
+        final var print = (Stmt.Print) parser.parse().get(0);
+
+        // Then
+        final var calls = (Expr.Binary) print.expression;
+        final var difference = (Expr.Binary) ((Expr.Binary) calls.left).left;
+        assertSame(difference.left, difference.right);
+        final var first = (Expr.Call) ((Expr.Binary) calls.left).right;
+        final var second = (Expr.Call) calls.right;
+        assertNotSame(first, second);
+        assertSame(first.arguments.get(0), second.arguments.get(0));
+    }
+
+    @Test
+    void interningCountsEachSharedNodeOnce() {
+        // Given
+        final var tokens = new Scanner("print a * b + a * b;").scanTokens();
+        final var interning = new Parser(tokens);
+        final var separate = new Parser(tokens, false, false);
+
+        // When
+        interning.parse();
+        separate.parse();
+
+        // Then
+        assertEquals(5, interning.nodeCount());
+        assertEquals(8, separate.nodeCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "var, Expect variable name.",
+            "fun, Expect function name.",
+            "'print 1', ''",
+            "'print (1', ''",
+    })
+    void onlyATrailingSemicolonOrParenthesisMayBeLeftOffTheEnd(final String source, final String message) {
+        // Given
+        final var diagnostics = new Diagnostics();
+        final var tokens = new Scanner(source, diagnostics).scanTokens();
+
+        // When
+        new Parser(tokens, false, false, diagnostics).parse();
+
+        // Then
+        final var expected = message.isEmpty() ? List.<Diagnostics.Diagnostic>of()
+                : List.of(new Diagnostics.Diagnostic(Diagnostics.Kind.STATIC, 1, " at end", message));
+        assertEquals(expected, diagnostics.pending());
+    }
+
+    @Test
+    void recoversAfterEachSyntaxErrorAndReportsThemAll() {
+        // Given
+        final var diagnostics = new Diagnostics();
+        final var tokens = new Scanner("""
+                var a = ;
+                print a;
+                fun f() {
+                    print 1 +;
+                    print 2;
+                }
+                print (3;
+                print 4;
+                """, diagnostics).scanTokens();
+
+        // When
+        final var statements = new Parser(tokens, false, false, diagnostics).parse();
+
+        // Then
+        assertEquals(List.of(
+                new Diagnostics.Diagnostic(Diagnostics.Kind.STATIC, 1, " at ';'", "Expect expression"),
+                new Diagnostics.Diagnostic(Diagnostics.Kind.STATIC, 4, " at ';'", "Expect expression"),
+                new Diagnostics.Diagnostic(Diagnostics.Kind.STATIC, 7, " at ';'", "Expect ')' after expression.")
+        ), diagnostics.pending());
+        assertEquals(3, statements.size());
+        assertEquals(1, assertInstanceOf(Stmt.Function.class, statements.get(1)).body.size());
+    }
+
+    private static String print(final List<Stmt> statements) {
+        final var printer = new AstPrinter();
+        final var builder = new StringBuilder();
+        for (final var statement : statements) {
+            if (statement instanceof Stmt.Print print) {
+                builder.append("print ").append(printer.print(print.expression));
+            } else {
+                builder.append(printer.print(((Stmt.Expression) statement).expression));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String errorOutput(final Runnable parse) {
+        final var output = new ByteArrayOutputStream();
+        final var originalErr = System.err;
+        System.setErr(new PrintStream(output));
+        try {
+            parse.run();
+            Lox.diagnostics.flush(System.err);
+        } finally {
+            System.setErr(originalErr);
+            Lox.diagnostics.reset();
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilingInterpreterTest {
+    @Test
+    void profileCountsHitsPerKindAndLine() {
+        // Given
+        final var interpreter = new ProfilingInterpreter(MemoryBudget.UNLIMITED);
+
+        // When
+        run(interpreter, "1 + 2;\n-3;\n1 + 2;");
+
+        // Then
+        final var totals = interpreter.profile().totals();
+        assertEquals(1, totals.get(new Profile.Site("Binary", 1)).hits);
+        assertEquals(2, totals.get(new Profile.Site("Literal", 1)).hits);
+        assertEquals(1, totals.get(new Profile.Site("Unary", 2)).hits);
+        assertEquals(1, totals.get(new Profile.Site("Binary", 3)).hits);
+    }
+
+    @Test
+    void foldedStacksListEveryPathFromTheStatement() throws IOException {
+        // Given
+        final var interpreter = new ProfilingInterpreter(MemoryBudget.UNLIMITED);
+        run(interpreter, "-(4);");
+        final var folded = new StringBuilder();
+
+        // When
+        interpreter.profile().writeFolded(folded);
+
+        // Then
+        final var stacks = folded.toString().lines().map(line -> line.substring(0, line.lastIndexOf(' '))).toList();
+        assertEquals(4, stacks.size());
+        assertEquals("Expression@1", stacks.get(0));
+        assertEquals("Expression@1;Unary@1;Grouping@1;Literal@1", stacks.get(3));
+    }
+
+    @Test
+    void jsonReportsEverySite() throws IOException {
+        // Given
+        final var interpreter = new ProfilingInterpreter(MemoryBudget.UNLIMITED);
+        run(interpreter, "1 + 2;");
+        final var json = new StringBuilder();
+
+        // When
+        interpreter.profile().writeJson(json);
+
+        // Then
+        assertTrue(json.toString().contains("{\"kind\":\"Binary\",\"line\":1,\"hits\":1,"));
+        assertTrue(json.toString().contains("{\"kind\":\"Literal\",\"line\":1,\"hits\":2,"));
+    }
+
+    @Test
+    void jsonReportsWhichOperandDecidedEachLogicalOperator() throws IOException {
+        // Given
+        final var interpreter = new ProfilingInterpreter(MemoryBudget.UNLIMITED);
+        run(interpreter, "for (var i = 0; i < 10; i = i + 1) {\n  i < 3 or i;\n}");
+        final var json = new StringBuilder();
+
+        // When
+        interpreter.profile().writeJson(json);
+
+        // Then
+        assertTrue(json.toString().contains("{\"operator\":\"or\",\"line\":2,\"leftDecided\":3,\"rightDecided\":7}"));
+    }
+
+    private static void run(final Interpreter interpreter, final String source) {
+        final var tokens = new Scanner(source).scanTokens();
+        final var statements = new Parser(tokens).parse();
+        new Resolver(interpreter).resolve(statements);
+        interpreter.interpret(statements);
+    }
+}
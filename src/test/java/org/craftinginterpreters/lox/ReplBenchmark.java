@@ -0,0 +1,93 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Piping ten thousand one-line entries, and then a function written over two thousand lines, into a REPL. The
+ * line-at-a-time loop is how the REPL used to work: every line is scanned and run on its own, after printing and
+ * flushing a prompt. Output goes to the null device, so every flush is a system call as it would be on a pipe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplBenchmark {
+    private static final String NULL_DEVICE =
+            System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+
+    private String lines;
+    private String longEntry;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        final var builder = new StringBuilder();
+        for (var i = 0; i < 5_000; i++) {
+            builder.append("var x").append(i).append(" = ").append(i).append(";\n");
+            builder.append("print x").append(i).append(" * 2;\n");
+        }
+        lines = builder.toString();
+
+        builder.setLength(0);
+        builder.append("fun long(n) {\n");
+        for (var i = 0; i < 2_000; i++) {
+            builder.append("  n = n + ").append(i).append(";\n");
+        }
+        builder.append("  return n;\n}\nprint long(0);\n");
+        longEntry = builder.toString();
+    }
+
+    @Setup(Level.Invocation)
+    public void discardOutput() throws IOException {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new FileOutputStream(NULL_DEVICE)));
+    }
+
+    @TearDown(Level.Invocation)
+    public void restoreOutput() {
+        System.out.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void lineAtATime() throws IOException {
+        final var in = new BufferedReader(new StringReader(lines));
+        for (var line = in.readLine(); line != null; line = in.readLine()) {
+            System.out.print("> ");
+            System.out.flush();
+            Lox.run(Lox.scan(line));
+            Lox.diagnostics.reset();
+            System.out.flush();
+        }
+    }
+
+    @Benchmark
+    public void session() throws IOException {
+        new Repl(new BufferedReader(new StringReader(lines)), false).run();
+    }
+
+    @Benchmark
+    public void sessionWithLongEntry() throws IOException {
+        new Repl(new BufferedReader(new StringReader(longEntry)), false).run();
+    }
+}
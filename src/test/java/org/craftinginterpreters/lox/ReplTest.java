@@ -0,0 +1,102 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplTest {
+    // Standard output and error share one stream, so the order they were written in can be checked.
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+    private PrintStream originalErr;
+
+    @BeforeEach
+    void captureOutput() {
+        originalOut = System.out;
+        originalErr = System.err;
+        final var stream = new PrintStream(output, true);
+        System.setOut(stream);
+        System.setErr(stream);
+        Lox.diagnostics.reset();
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+        Lox.diagnostics.reset();
+    }
+
+    @Test
+    void definitionsStayVisibleToLaterEntries() throws IOException {
+        // When
+        run("var replCount = 1;\nreplCount = replCount + 1;\nprint replCount;\n");
+
+        // Then
+        assertEquals("2\n", output.toString());
+    }
+
+    @Test
+    void anEntryCarriesOnUntilItsBracketsAndStringsAreClosed() throws IOException {
+        // When
+        run("fun replTwice(n) {\n  return n * 2;\n}\nprint replTwice(21);\nprint \"two\nlines\";\n");
+
+        // Then
+        assertEquals("42\ntwo\nlines\n", output.toString());
+    }
+
+    @Test
+    void aBlankLineRunsAnUnfinishedEntry() throws IOException {
+        // When
+        run("print (1;\n\nprint 3;\n");
+
+        // Then
+        assertEquals("[line 1] Error  at ';': Expect ')' after expression.\n3\n", output.toString());
+    }
+
+    @Test
+    void scannerErrorsOnEarlierLinesOfAnEntryAreReportedOnce() throws IOException {
+        // When
+        run("fun replBroken() {\n  @\n  print 1;\n}\nprint 2;\n");
+
+        // Then
+        assertEquals("[line 2] Error : Unexpected character.\n2\n", output.toString());
+    }
+
+    @Test
+    void errorsAreWrittenAfterTheOutputBeforeThem() throws IOException {
+        // When
+        run("print 1;\nprint -\"x\";\nprint 2;\n");
+
+        // Then
+        assertEquals("1\nOperand must be a number.\n[line 1]\n2\n", output.toString());
+    }
+
+    @Test
+    void promptsAreOnlyShownWhenAPersonIsTyping() throws IOException {
+        // Given
+        final var input = "print 1;\n{\n}\n";
+
+        // When
+        new Repl(new BufferedReader(new StringReader(input)), true).run();
+        final var interactive = output.toString();
+        output.reset();
+        run(input);
+
+        // Then
+        assertEquals("> 1\n> ... > ", interactive);
+        assertEquals("1\n", output.toString());
+    }
+
+    private static void run(final String input) throws IOException {
+        new Repl(new BufferedReader(new StringReader(input)), false).run();
+    }
+}
@@ -27,6 +27,27 @@ class ScannerTest {
         assertEquals(expectedTokens, tokens);
     }
 
+    @Test
+    void scanTokensShouldHandleBrackets() {
+        // Given
+        final var scanner = new Scanner("a[[1]]");
+        final var expectedTokens = List.of(
+                new Token(TokenType.IDENTIFIER, "a", null, 1),
+                new Token(TokenType.LEFT_BRACKET, "[", null, 1),
+                new Token(TokenType.LEFT_BRACKET, "[", null, 1),
+                new Token(TokenType.NUMBER, "1", 1.0, 1),
+                new Token(TokenType.RIGHT_BRACKET, "]", null, 1),
+                new Token(TokenType.RIGHT_BRACKET, "]", null, 1),
+                new Token(TokenType.EOF, "", null, 1)
+        );
+
+        // When
+        final var tokens = scanner.scanTokens();
+
+        // Then
+        assertEquals(expectedTokens, tokens);
+    }
+
     @Test
     void scanTokensShouldHandleNil() {
         // Given
@@ -0,0 +1,105 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StackSafeInterpreterTest {
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+    private PrintStream originalErr;
+
+    @BeforeEach
+    void captureOutput() {
+        originalOut = System.out;
+        originalErr = System.err;
+        System.setOut(new PrintStream(stdout));
+        System.setErr(new PrintStream(stderr));
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    @Test
+    void evaluatesDeeplyNestedExpressions() {
+        // Given
+        final var depth = 100_000;
+        final var source = "print " + "(1 + ".repeat(depth) + "0" + ")".repeat(depth) + ";\n"
+                + "print " + "!".repeat(depth + 1) + "nil;";
+
+        // When
+        run(new StackSafeInterpreter(MemoryBudget.UNLIMITED), source);
+
+        // Then
+        assertEquals("100000\ntrue\n", stdout.toString());
+    }
+
+    @Test
+    void evaluatesLongLogicalChains() {
+        // Given
+        final var length = 100_000;
+        final var source = "print false" + " or false".repeat(length) + " or \"last\";\n"
+                + "print " + "(true and ".repeat(length) + "nil" + ")".repeat(length) + ";";
+
+        // When
+        run(new StackSafeInterpreter(MemoryBudget.UNLIMITED), source);
+
+        // Then
+        assertEquals("last\nnil\n", stdout.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "print 1 + 2 * 3;\nprint -(4 - \"a\");",
+            "print \"a\" + (\"b\" + 1);",
+            "print 1;\nprint 2 /\n(3 - 3);\nprint 4;",
+            "print !(1 < 2) == false;\nprint (1 > -\"x\");",
+            "print nil or 1 and \"a\";\nprint (false and -\"x\") or !true;\nprint 1 and -\"x\";",
+    })
+    void producesTheSameOutputAndErrorsAsTheRecursiveInterpreter(final String source) {
+        // Given
+        run(new Interpreter(), source);
+        final var expectedOut = stdout.toString();
+        final var expectedErr = stderr.toString();
+        stdout.reset();
+        stderr.reset();
+
+        // When
+        run(new StackSafeInterpreter(MemoryBudget.UNLIMITED), source);
+
+        // Then
+        assertEquals(expectedOut, stdout.toString());
+        assertEquals(expectedErr, stderr.toString());
+    }
+
+    @Test
+    void recoversItsStacksAfterARuntimeError() {
+        // Given
+        final var interpreter = new StackSafeInterpreter(MemoryBudget.UNLIMITED);
+
+        // When
+        run(interpreter, "print 1 + (2 * (3 - \"x\"));");
+        run(interpreter, "print 1 + (2 * 3);");
+
+        // Then
+        assertEquals("7\n", stdout.toString());
+    }
+
+    private static void run(final Interpreter interpreter, final String source) {
+        final var tokens = new Scanner(source).scanTokens();
+        final var statements = new Parser(tokens, true).parse();
+        new Resolver(interpreter).resolve(statements);
+        interpreter.interpret(statements);
+    }
+}
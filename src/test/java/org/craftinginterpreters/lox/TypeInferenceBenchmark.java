@@ -0,0 +1,59 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic on number locals with and without type inference, which lets the tree-walker skip operand checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeInferenceBenchmark {
+    private static final String SOURCE = """
+            fun run() {
+                var total = 0;
+                for (var i = 0; i < 100000; i = i + 1) {
+                    var x = (i * 3 + 1) - i / 2;
+                    if (x > 1000) total = total + x * 0.5;
+                    else total = total - 1;
+                }
+                return total;
+            }
+            var result = run();
+            """;
+
+    @Param({"true", "false"})
+    public boolean inferred;
+
+    private Interpreter interpreter;
+    private List<Stmt> program;
+
+    @Setup
+    public void setup() {
+        interpreter = new Interpreter(MemoryBudget.UNLIMITED, Interpreter.NEVER_COMPILE);
+        program = new Parser(new Scanner(SOURCE).scanTokens()).parse();
+        new Resolver(interpreter).resolve(program);
+        if (inferred) new TypeInference().infer(program);
+    }
+
+    @Benchmark
+    public void run() {
+        interpreter.interpret(program);
+    }
+}
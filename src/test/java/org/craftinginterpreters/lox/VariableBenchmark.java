@@ -0,0 +1,56 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes of local and global variables from blocks of increasing nesting depth.
+ * The language has no loops, so the loop body is unrolled into a long run of statements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VariableBenchmark {
+    private static final int ITERATIONS = 1_000;
+
+    @Param({"0", "1", "4"})
+    public int depth;
+
+    private Interpreter interpreter;
+    private List<Stmt> program;
+
+    @Setup
+    public void setup() {
+        final var source = new StringBuilder("var total = 0;\n");
+        source.append("{\n".repeat(depth + 1));
+        source.append("var a = 0;\nvar b = 1;\n");
+        source.append("{\n".repeat(depth));
+        // A Fibonacci step per iteration: three local reads, two local writes and a global update.
+        source.append("{ var c = a + b; a = b; b = c; total = total + c; }\n".repeat(ITERATIONS));
+        source.append("}\n".repeat(2 * depth + 1));
+
+        interpreter = new Interpreter();
+        program = new Parser(new Scanner(source.toString()).scanTokens()).parse();
+        new Resolver(interpreter).resolve(program);
+    }
+
+    @Benchmark
+    public void fibonacciSteps() {
+        interpreter.interpret(program);
+    }
+}
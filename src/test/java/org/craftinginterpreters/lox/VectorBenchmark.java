@@ -0,0 +1,69 @@
+package org.craftinginterpreters.lox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The vector kernels on 10M-element inputs, one element at a time and in SIMD lanes.
+ * The JVM running it needs {@code --add-modules jdk.incubator.vector}, which {@code .mvn/jvm.config} provides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorBenchmark {
+    private static final int LENGTH = 10_000_000;
+
+    @Param({"scalar", "simd"})
+    public String kernels;
+
+    private VectorKernels implementation;
+    private double[] left;
+    private double[] right;
+    private double[] result;
+
+    @Setup
+    public void setup() {
+        implementation = kernels.equals("simd") ? new SimdKernels() : new ScalarKernels();
+        final var random = new Random(42);
+        left = random.doubles(LENGTH).toArray();
+        right = random.doubles(LENGTH).toArray();
+        result = new double[LENGTH];
+    }
+
+    @Benchmark
+    public double[] multiply() {
+        implementation.apply(TokenType.STAR, left, right, result);
+        return result;
+    }
+
+    @Benchmark
+    public double[] addConstant() {
+        implementation.apply(TokenType.PLUS, left, 1.0, result);
+        return result;
+    }
+
+    @Benchmark
+    public double sum() {
+        return implementation.sum(left);
+    }
+
+    @Benchmark
+    public double max() {
+        return implementation.max(left);
+    }
+}
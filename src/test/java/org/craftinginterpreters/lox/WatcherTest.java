@@ -0,0 +1,165 @@
+package org.craftinginterpreters.lox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatcherTest {
+    @TempDir
+    Path root;
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void captureOutput() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(stdout));
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void aSavedScriptRunsAgainWithItsUnchangedDeclarationsReused() throws IOException {
+        // Given
+        final var file = root.resolve("script.lox");
+        final var watcher = watcher(Duration.ofMillis(10));
+        Files.writeString(file, "fun twice(n) { return n * 2; }\nvar a = 1;\nprint twice(a);\n");
+        watcher.run(file);
+        final var before = watcher.script(file).statements();
+
+        // When
+        Files.writeString(file, "fun twice(n) { return n * 2; }\nvar a = 20;\nprint twice(a);\n");
+        watcher.run(file);
+
+        // Then
+        final var after = watcher.script(file).statements();
+        assertEquals("2\n40\n", stdout.toString());
+        assertEquals("--- " + file + "\n--- " + file + "\n", stderr.toString().replace(System.lineSeparator(), "\n"));
+        assertEquals(1, watcher.script(file).reparsedDeclarations());
+        assertSame(before.get(0), after.get(0));
+        assertSame(before.get(2), after.get(2));
+    }
+
+    @Test
+    void aSaveThatLeavesTheTextAsItWasDoesNotRunAgain() throws IOException {
+        // Given
+        final var file = root.resolve("script.lox");
+        final var watcher = watcher(Duration.ofMillis(10));
+        Files.writeString(file, "print 1;\n");
+        watcher.run(file);
+
+        // When
+        Files.writeString(file, "print 1;\n");
+        watcher.run(file);
+
+        // Then
+        assertEquals("1\n", stdout.toString());
+        assertFalse(watcher.reload(file, "print 1;\n"));
+    }
+
+    @Test
+    void errorsAreReportedAndTheNextSaveRunsAgain() throws IOException {
+        // Given
+        final var file = root.resolve("script.lox");
+        final var watcher = watcher(Duration.ofMillis(10));
+        Files.writeString(file, "print 1 +;\nprint -\"x\";\n");
+        watcher.run(file);
+
+        // When
+        Files.writeString(file, "print 1 + 2;\nprint -\"x\";\n");
+        watcher.run(file);
+
+        // Then
+        assertEquals("3\n", stdout.toString());
+        assertEquals(String.join("\n",
+                "--- " + file,
+                "[line 1] Error  at ';': Expect expression",
+                "--- " + file,
+                "Operand must be a number.",
+                "[line 2]",
+                ""), stderr.toString().replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void aBurstOfEventsIsCoalesced() throws IOException, InterruptedException {
+        // Given
+        final var first = root.resolve("a.lox");
+        final var second = root.resolve("b.lox");
+        final var watcher = watcher(Duration.ofMillis(500));
+        try (var service = FileSystems.getDefault().newWatchService()) {
+            root.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            // When
+            for (var i = 0; i < 5; i++) {
+                Files.writeString(first, "print " + i + ";\n");
+                Files.writeString(second, "print " + i + ";\n");
+            }
+            final var changed = watcher.awaitChanges(service);
+
+            // Then
+            assertEquals(Set.of(first, second), changed);
+        }
+    }
+
+    @Test
+    void watchingRunsEveryScriptAndThenEachOneThatChanges() throws Exception {
+        // Given
+        Files.createDirectories(root.resolve("nested"));
+        Files.writeString(root.resolve("a.lox"), "print \"a\";\n");
+        Files.writeString(root.resolve("nested/b.lox"), "print \"b\";\n");
+        Files.writeString(root.resolve("notes.txt"), "print \"not lox\";\n");
+        final var watcher = watcher(Duration.ofMillis(50));
+        final var thread = new Thread(() -> {
+            try {
+                watcher.watch();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // When
+        thread.start();
+        awaitOutput("a\nb\n");
+        Files.writeString(root.resolve("nested/b.lox"), "print \"b again\";\n");
+        awaitOutput("a\nb\nb again\n");
+        thread.interrupt();
+        thread.join(5_000);
+
+        // Then
+        assertFalse(thread.isAlive());
+        assertTrue(stderr.toString().contains("--- " + root.resolve("nested/b.lox")));
+    }
+
+    private Watcher watcher(final Duration debounce) {
+        return new Watcher(List.of(root), false, Interpreter::new, new ModuleLoader(false), debounce, new PrintStream(stderr, true));
+    }
+
+    private void awaitOutput(final String expected) throws InterruptedException {
+        for (var waited = 0; waited < 10_000 && !stdout.toString().equals(expected); waited += 20) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, stdout.toString());
+    }
+}